@@ -0,0 +1,128 @@
+package redblackintervaltree;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// insertAll/deleteAll of one batch into a tree of the given size, forcing
+// each strategy, to find the batch size where merging and rebuilding the
+// tree starts to beat sorted single inserts. The batch is a percentage of
+// the tree, drawn over the tree's whole key space, with a finer grid around
+// the crossovers the rebuild ratios in RedBlackIntervalTree are set from.
+// AUTO is what the public methods pick; INSERT_EACH is the unsorted
+// insert() loop they replace. The trees have no endpoint tree, as for a
+// tree nobody asks depth queries of.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+@State(Scope.Benchmark)
+public class BatchUpdateBenchmark {
+
+    public enum Strategy { INSERT_EACH, SORTED, REBUILD, AUTO }
+
+    @Param({ "1000000", "10000000" })
+    int size;
+
+    @Param({ "0.1", "1", "4", "8", "10", "12.5", "16", "20", "25", "35", "50", "100" })
+    double percent;
+
+    int batch;
+
+    @Param({ "UNIFORM", "LONG_TAIL" })
+    Distribution distribution;
+
+    @Param({ "INSERT_EACH", "SORTED", "REBUILD", "AUTO" })
+    Strategy strategy;
+
+    int[] starts, ends;
+
+    // Odd starts, so the batch never merges into the stored intervals
+    int[] batchStarts, batchEnds;
+
+    RedBlackIntervalTree tree;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        int[][] data = distribution.generate(size, 42);
+        starts = data[0];
+        ends = data[1];
+        batch = (int) (size * percent / 100);
+        int[][] extra = distribution.generate(batch, size, 7);
+        batchStarts = extra[0];
+        batchEnds = extra[1];
+        for (int i = 0; i < batch; i++) {
+            batchStarts[i]++;
+            batchEnds[i]++;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class InsertState {
+        @Setup(Level.Iteration)
+        public void setUp(BatchUpdateBenchmark b) {
+            b.tree = RedBlackIntervalTree.bulkLoad(b.starts, b.ends);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DeleteState {
+        @Setup(Level.Iteration)
+        public void setUp(BatchUpdateBenchmark b) {
+            int[] s = Arrays.copyOf(b.starts, b.size + b.batch);
+            int[] e = Arrays.copyOf(b.ends, b.size + b.batch);
+            System.arraycopy(b.batchStarts, 0, s, b.size, b.batch);
+            System.arraycopy(b.batchEnds, 0, e, b.size, b.batch);
+            b.tree = RedBlackIntervalTree.bulkLoad(s, e);
+        }
+    }
+
+    @Benchmark
+    public RedBlackIntervalTree insertAll(InsertState state) {
+        switch (strategy) {
+            case INSERT_EACH:
+                for (int i = 0; i < batch; i++) tree.insert(batchStarts[i], batchEnds[i]);
+                break;
+            case SORTED:
+                tree.insertAll(batchStarts, batchEnds, false);
+                break;
+            case REBUILD:
+                tree.insertAll(batchStarts, batchEnds, true);
+                break;
+            default:
+                tree.insertAll(batchStarts, batchEnds);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public RedBlackIntervalTree deleteAll(DeleteState state) {
+        switch (strategy) {
+            case INSERT_EACH:
+                for (int i = 0; i < batch; i++) tree.delete(batchStarts[i], batchEnds[i]);
+                break;
+            case SORTED:
+                tree.deleteAll(batchStarts, batchEnds, false);
+                break;
+            case REBUILD:
+                tree.deleteAll(batchStarts, batchEnds, true);
+                break;
+            default:
+                tree.deleteAll(batchStarts, batchEnds);
+        }
+        return tree;
+    }
+}
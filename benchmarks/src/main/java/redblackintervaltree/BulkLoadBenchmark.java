@@ -0,0 +1,67 @@
+package redblackintervaltree;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cold start: building a whole tree with bulkLoad against n insert() calls,
+// from input that is already sorted and from input in generation order.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+@State(Scope.Benchmark)
+public class BulkLoadBenchmark {
+
+    @Param({ "1000000", "20000000" })
+    int size;
+
+    @Param({ "UNIFORM", "LONG_TAIL" })
+    Distribution distribution;
+
+    @Param({ "true", "false" })
+    boolean sorted;
+
+    int[] starts, ends;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[][] data = distribution.generate(size, 42);
+        starts = data[0];
+        ends = data[1];
+        if (sorted) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) keys[i] = (long) starts[i] << 32 | (ends[i] & 0xFFFFFFFFL);
+            Arrays.sort(keys);
+            for (int i = 0; i < size; i++) {
+                starts[i] = (int) (keys[i] >> 32);
+                ends[i] = (int) keys[i];
+            }
+        }
+    }
+
+    @Benchmark
+    public RedBlackIntervalTree bulkLoad() {
+        return RedBlackIntervalTree.bulkLoad(starts, ends);
+    }
+
+    @Benchmark
+    public RedBlackIntervalTree insertEach() {
+        RedBlackIntervalTree tree = new RedBlackIntervalTree();
+        for (int i = 0; i < size; i++) tree.insert(starts[i], ends[i]);
+        return tree;
+    }
+}
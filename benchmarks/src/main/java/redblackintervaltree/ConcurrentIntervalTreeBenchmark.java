@@ -0,0 +1,172 @@
+package redblackintervaltree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Shared-tree throughput: ConcurrentIntervalTree and PersistentIntervalTree
+// against a RedBlackIntervalTree behind a synchronized block. The *Query
+// benchmarks are read-only and meant to be run at increasing -t to see read
+// scaling; the read/write groups pair query threads (-tg N,1) with one
+// thread toggling the update batch.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class ConcurrentIntervalTreeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TreeState {
+
+        @Param({ "100000", "1000000", "10000000" })
+        int size;
+
+        @Param({ "UNIFORM", "CLUSTERED", "NESTED", "LONG_TAIL" })
+        Distribution distribution;
+
+        ConcurrentIntervalTree concurrent;
+
+        PersistentIntervalTree persistent;
+
+        RedBlackIntervalTree locked;
+
+        Workload data;
+
+        // Batch intervals currently stored; only touched by the writer thread
+        boolean[] present = new boolean[Workload.BATCH];
+
+        int nextUpdate;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = new Workload(distribution, size);
+            concurrent = new ConcurrentIntervalTree();
+            persistent = new PersistentIntervalTree();
+            locked = new RedBlackIntervalTree();
+            for (int i = 0; i < size; i++) {
+                concurrent.insert(data.starts[i], data.ends[i]);
+                persistent.insert(data.starts[i], data.ends[i]);
+                locked.insert(data.starts[i], data.ends[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReaderState {
+
+        int next;
+
+        long checksum;
+
+        final IntervalConsumer sink = (start, end) -> {
+            checksum += start ^ end;
+            return true;
+        };
+
+        int nextQuery() {
+            return next++ & (Workload.QUERIES - 1);
+        }
+    }
+
+    private static long queryConcurrent(TreeState state, ReaderState reader) {
+        int q = reader.nextQuery();
+        state.concurrent.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], reader.sink);
+        return reader.checksum;
+    }
+
+    private static long queryPersistent(TreeState state, ReaderState reader) {
+        int q = reader.nextQuery();
+        state.persistent.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], reader.sink);
+        return reader.checksum;
+    }
+
+    private static long querySynchronized(TreeState state, ReaderState reader) {
+        int q = reader.nextQuery();
+        synchronized (state.locked) {
+            state.locked.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], reader.sink);
+        }
+        return reader.checksum;
+    }
+
+    @Benchmark
+    public long concurrentQuery(TreeState state, ReaderState reader) {
+        return queryConcurrent(state, reader);
+    }
+
+    @Benchmark
+    public long persistentQuery(TreeState state, ReaderState reader) {
+        return queryPersistent(state, reader);
+    }
+
+    @Benchmark
+    public long synchronizedQuery(TreeState state, ReaderState reader) {
+        return querySynchronized(state, reader);
+    }
+
+    @Benchmark
+    @Group("concurrentReadWrite")
+    @GroupThreads(7)
+    public long concurrentReader(TreeState state, ReaderState reader) {
+        return queryConcurrent(state, reader);
+    }
+
+    @Benchmark
+    @Group("concurrentReadWrite")
+    @GroupThreads(1)
+    public void concurrentWriter(TreeState state) {
+        int i = state.nextUpdate++ & (Workload.BATCH - 1);
+        if (state.present[i]) state.concurrent.delete(state.data.batchStarts[i], state.data.batchEnds[i]);
+        else state.concurrent.insert(state.data.batchStarts[i], state.data.batchEnds[i]);
+        state.present[i] = !state.present[i];
+    }
+
+    @Benchmark
+    @Group("persistentReadWrite")
+    @GroupThreads(7)
+    public long persistentReader(TreeState state, ReaderState reader) {
+        return queryPersistent(state, reader);
+    }
+
+    @Benchmark
+    @Group("persistentReadWrite")
+    @GroupThreads(1)
+    public void persistentWriter(TreeState state) {
+        int i = state.nextUpdate++ & (Workload.BATCH - 1);
+        if (state.present[i]) state.persistent.delete(state.data.batchStarts[i], state.data.batchEnds[i]);
+        else state.persistent.insert(state.data.batchStarts[i], state.data.batchEnds[i]);
+        state.present[i] = !state.present[i];
+    }
+
+    @Benchmark
+    @Group("synchronizedReadWrite")
+    @GroupThreads(7)
+    public long synchronizedReader(TreeState state, ReaderState reader) {
+        return querySynchronized(state, reader);
+    }
+
+    @Benchmark
+    @Group("synchronizedReadWrite")
+    @GroupThreads(1)
+    public void synchronizedWriter(TreeState state) {
+        int i = state.nextUpdate++ & (Workload.BATCH - 1);
+        synchronized (state.locked) {
+            if (state.present[i]) state.locked.delete(state.data.batchStarts[i], state.data.batchEnds[i]);
+            else state.locked.insert(state.data.batchStarts[i], state.data.batchEnds[i]);
+        }
+        state.present[i] = !state.present[i];
+    }
+}
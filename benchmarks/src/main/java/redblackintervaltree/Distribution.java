@@ -0,0 +1,102 @@
+package redblackintervaltree;
+
+import java.util.Random;
+
+// Interval shapes used by the benchmarks. Starts are always generated even so
+// that odd starts can be used for intervals known not to be in the tree.
+public enum Distribution {
+
+    // Starts spread evenly over the key space, short lengths.
+    UNIFORM {
+        @Override
+        void fill(int[] starts, int[] ends, int span, Random rnd) {
+            for (int i = 0; i < starts.length; i++) {
+                int start = rnd.nextInt(span);
+                set(starts, ends, i, start, 1 + rnd.nextInt(SHORT_LENGTH));
+            }
+        }
+    },
+
+    // Starts packed around a few hot spots, short lengths.
+    CLUSTERED {
+        @Override
+        void fill(int[] starts, int[] ends, int span, Random rnd) {
+            int[] centers = new int[CLUSTERS];
+            for (int i = 0; i < CLUSTERS; i++) centers[i] = rnd.nextInt(span);
+            int spread = Math.max(1, span / (CLUSTERS * 64));
+            for (int i = 0; i < starts.length; i++) {
+                int center = centers[rnd.nextInt(CLUSTERS)];
+                int start = clamp((long) center + (long) (rnd.nextGaussian() * spread), span);
+                set(starts, ends, i, start, 1 + rnd.nextInt(SHORT_LENGTH));
+            }
+        }
+    },
+
+    // Groups of intervals nested around a shared center, like call stacks.
+    NESTED {
+        @Override
+        void fill(int[] starts, int[] ends, int span, Random rnd) {
+            int i = 0;
+            while (i < starts.length) {
+                int center = rnd.nextInt(span);
+                int depth = Math.min(starts.length - i, 1 + rnd.nextInt(NESTING));
+                int width = 0;
+                for (int d = 0; d < depth; d++, i++) {
+                    width += 1 + rnd.nextInt(SHORT_LENGTH);
+                    int start = clamp((long) center - width, span);
+                    set(starts, ends, i, start, 2 * width);
+                }
+            }
+        }
+    },
+
+    // Uniform starts with Pareto distributed lengths: mostly short, a few huge.
+    LONG_TAIL {
+        @Override
+        void fill(int[] starts, int[] ends, int span, Random rnd) {
+            for (int i = 0; i < starts.length; i++) {
+                int start = rnd.nextInt(span);
+                double length = Math.pow(1 - rnd.nextDouble(), -1 / PARETO_ALPHA);
+                set(starts, ends, i, start, (int) Math.min(length, MAX_LENGTH));
+            }
+        }
+    };
+
+    static final int SHORT_LENGTH = 1000;
+    static final int MAX_LENGTH = 1 << 24;
+    static final int CLUSTERS = 64;
+    static final int NESTING = 32;
+    static final double PARETO_ALPHA = 1.2;
+
+    // Largest start before doubling, keeps start + length well inside int range.
+    static final int MAX_SPAN = 1 << 29;
+
+    abstract void fill(int[] starts, int[] ends, int span, Random rnd);
+
+    // Generates n intervals with even starts over a key space scaled to n.
+    public int[][] generate(int n, long seed) {
+        return generate(n, n, seed);
+    }
+
+    // Generates n intervals over the key space of size intervals, so a batch
+    // for a tree of that size spreads over all of it.
+    public int[][] generate(int n, int size, long seed) {
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        fill(starts, ends, span(size), new Random(seed));
+        return new int[][] { starts, ends };
+    }
+
+    static int span(int n) {
+        return (int) Math.min(MAX_SPAN, Math.max(1 << 20, 16L * n));
+    }
+
+    private static void set(int[] starts, int[] ends, int i, int start, int length) {
+        starts[i] = start << 1;
+        ends[i] = (start << 1) + (length << 1);
+    }
+
+    private static int clamp(long value, int span) {
+        return (int) Math.max(0, Math.min(span - 1, value));
+    }
+}
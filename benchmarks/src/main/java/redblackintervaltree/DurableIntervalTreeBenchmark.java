@@ -0,0 +1,85 @@
+package redblackintervaltree;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Durable update throughput with group commit off (window 0, one fsync per
+// update) and on. Group commit only pays with several writers, so this runs
+// 8 threads by default; vary it with -t. Numbers depend on the disk under
+// java.io.tmpdir: a tmpfs makes fsync nearly free.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+@Threads(8)
+public class DurableIntervalTreeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LogState {
+
+        @Param({ "0", "200000", "1000000" })
+        long windowNanos;
+
+        Path directory;
+
+        DurableIntervalTree tree;
+
+        final AtomicInteger writers = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("intervals-wal");
+            tree = DurableIntervalTree.open(directory, false, windowNanos, DurableIntervalTree.DEFAULT_WINDOW_BYTES);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            tree.close();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    // Each writer inserts and deletes its own intervals in turn, so the tree
+    // stays small and every update changes it
+    @State(Scope.Thread)
+    public static class WriterState {
+
+        int base, next;
+
+        @Setup(Level.Trial)
+        public void setUp(LogState log) {
+            base = log.writers.getAndIncrement() << 20;
+        }
+    }
+
+    @Benchmark
+    public void update(LogState log, WriterState writer) throws IOException {
+        int i = writer.next++;
+        int start = writer.base + 2 * ((i >> 1) & 0x7FFFF);
+        if ((i & 1) == 0) log.tree.insert(start, start + 1);
+        else log.tree.delete(start, start + 1);
+    }
+}
@@ -0,0 +1,188 @@
+package redblackintervaltree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The updatable engines side by side on the IntervalTreeBenchmark workloads:
+// the LLRB object tree, RECURSIVE (the same tree on the recursive code it
+// had before the explicit-stack walks, see RecursiveIntervalTree),
+// ArenaIntervalTree's array layout and BTreeIntervalTree's wide nodes, each
+// filled by insert() so one run compares them directly. Each fork loads a
+// single engine, so the calls through Tree stay monomorphic.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class EngineBenchmark {
+
+    public enum Engine { LLRB, RECURSIVE, ARENA, BTREE }
+
+    // The operations the benchmarks drive, forwarded to the engine
+    interface Tree {
+        void insert(int start, int end);
+
+        void delete(int start, int end);
+
+        boolean findOverlapping(int start, int end, IntervalConsumer consumer);
+
+        boolean findContaining(int point, IntervalConsumer consumer);
+    }
+
+    @State(Scope.Benchmark)
+    public static class TreeState {
+
+        @Param({ "1000", "100000", "1000000", "10000000", "50000000" })
+        int size;
+
+        @Param({ "UNIFORM", "CLUSTERED", "NESTED", "LONG_TAIL" })
+        Distribution distribution;
+
+        @Param({ "LLRB", "RECURSIVE", "ARENA", "BTREE" })
+        Engine engine;
+
+        Tree tree;
+
+        Workload data;
+
+        int next;
+
+        long checksum;
+
+        final IntervalConsumer sink = (start, end) -> {
+            checksum += start ^ end;
+            return true;
+        };
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = new Workload(distribution, size);
+            tree = create(engine, size + Workload.BATCH);
+            for (int i = 0; i < size; i++) tree.insert(data.starts[i], data.ends[i]);
+        }
+
+        int nextQuery() {
+            return next++ & (Workload.QUERIES - 1);
+        }
+
+        void insertBatch() {
+            for (int i = 0; i < Workload.BATCH; i++) tree.insert(data.batchStarts[i], data.batchEnds[i]);
+        }
+
+        void deleteBatch() {
+            for (int i = 0; i < Workload.BATCH; i++) tree.delete(data.batchStarts[i], data.batchEnds[i]);
+        }
+    }
+
+    static Tree create(Engine engine, int capacity) {
+        switch (engine) {
+            case RECURSIVE: {
+                RecursiveIntervalTree tree = new RecursiveIntervalTree();
+                return new Tree() {
+                    public void insert(int start, int end) { tree.insert(start, end); }
+                    public void delete(int start, int end) { tree.delete(start, end); }
+                    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+                        return tree.findOverlapping(start, end, consumer);
+                    }
+                    public boolean findContaining(int point, IntervalConsumer consumer) {
+                        return tree.findContaining(point, consumer);
+                    }
+                };
+            }
+            case ARENA: {
+                ArenaIntervalTree tree = new ArenaIntervalTree(capacity);
+                return new Tree() {
+                    public void insert(int start, int end) { tree.insert(start, end); }
+                    public void delete(int start, int end) { tree.delete(start, end); }
+                    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+                        return tree.findOverlapping(start, end, consumer);
+                    }
+                    public boolean findContaining(int point, IntervalConsumer consumer) {
+                        return tree.findContaining(point, consumer);
+                    }
+                };
+            }
+            case BTREE: {
+                BTreeIntervalTree tree = new BTreeIntervalTree();
+                return new Tree() {
+                    public void insert(int start, int end) { tree.insert(start, end); }
+                    public void delete(int start, int end) { tree.delete(start, end); }
+                    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+                        return tree.findOverlapping(start, end, consumer);
+                    }
+                    public boolean findContaining(int point, IntervalConsumer consumer) {
+                        return tree.findContaining(point, consumer);
+                    }
+                };
+            }
+            default: {
+                RedBlackIntervalTree tree = new RedBlackIntervalTree();
+                return new Tree() {
+                    public void insert(int start, int end) { tree.insert(start, end); }
+                    public void delete(int start, int end) { tree.delete(start, end); }
+                    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+                        return tree.findOverlapping(start, end, consumer);
+                    }
+                    public boolean findContaining(int point, IntervalConsumer consumer) {
+                        return tree.findContaining(point, consumer);
+                    }
+                };
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class InsertState {
+        @TearDown(Level.Invocation)
+        public void tearDown(TreeState state) {
+            state.deleteBatch();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DeleteState {
+        @Setup(Level.Invocation)
+        public void setUp(TreeState state) {
+            state.insertBatch();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void insert(TreeState state, InsertState insert) {
+        state.insertBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void delete(TreeState state, DeleteState delete) {
+        state.deleteBatch();
+    }
+
+    @Benchmark
+    public long findOverlappingVisitor(TreeState state) {
+        int q = state.nextQuery();
+        state.tree.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long findContainingVisitor(TreeState state) {
+        state.tree.findContaining(state.data.points[state.nextQuery()], state.sink);
+        return state.checksum;
+    }
+}
@@ -0,0 +1,112 @@
+package redblackintervaltree;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Payload lookup on query hits: RedBlackIntervalMap hands the value to the
+// consumer, against RedBlackIntervalTree plus a side HashMap keyed by the
+// interval.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class IntervalMapBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class MapState {
+
+        @Param({ "1000", "100000", "1000000", "10000000" })
+        int size;
+
+        @Param({ "UNIFORM", "CLUSTERED", "NESTED", "LONG_TAIL" })
+        Distribution distribution;
+
+        RedBlackIntervalMap<Integer> map;
+
+        RedBlackIntervalTree tree;
+
+        Map<Long, Integer> values;
+
+        Workload data;
+
+        int next;
+
+        long checksum;
+
+        final IntervalValueConsumer<Integer> mapSink = (start, end, value) -> {
+            checksum += value;
+            return true;
+        };
+
+        final IntervalConsumer sideSink = (start, end) -> {
+            checksum += values.get(key(start, end));
+            return true;
+        };
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = new Workload(distribution, size);
+            tree = new RedBlackIntervalTree();
+            for (int i = 0; i < size; i++) tree.insert(data.starts[i], data.ends[i]);
+
+            // Same contents in both: the map gets what the tree kept after
+            // merging equal starts, with the start as the payload.
+            map = new RedBlackIntervalMap<>();
+            values = new HashMap<>();
+            tree.findOverlapping(Integer.MIN_VALUE, Integer.MAX_VALUE, (start, end) -> {
+                map.put(start, end, start);
+                values.put(key(start, end), start);
+                return true;
+            });
+        }
+
+        static long key(int start, int end) {
+            return (long) start << 32 | (end & 0xFFFFFFFFL);
+        }
+
+        int nextQuery() {
+            return next++ & (Workload.QUERIES - 1);
+        }
+    }
+
+    @Benchmark
+    public long findOverlappingMap(MapState state) {
+        int q = state.nextQuery();
+        state.map.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], state.mapSink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long findOverlappingSideMap(MapState state) {
+        int q = state.nextQuery();
+        state.tree.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], state.sideSink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long findContainingMap(MapState state) {
+        state.map.findContaining(state.data.points[state.nextQuery()], state.mapSink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long findContainingSideMap(MapState state) {
+        state.tree.findContaining(state.data.points[state.nextQuery()], state.sideSink);
+        return state.checksum;
+    }
+}
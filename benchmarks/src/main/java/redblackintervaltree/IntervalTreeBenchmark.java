@@ -0,0 +1,192 @@
+package redblackintervaltree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Throughput of the public RedBlackIntervalTree operations over tree sizes and
+// interval distributions. Run through BenchmarkMain to get the gc profiler
+// (allocation rate) alongside ops/s.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class IntervalTreeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TreeState {
+
+        @Param({ "1000", "100000", "1000000", "10000000", "50000000" })
+        int size;
+
+        @Param({ "UNIFORM", "CLUSTERED", "NESTED", "LONG_TAIL" })
+        Distribution distribution;
+
+        RedBlackIntervalTree tree;
+
+        Workload data;
+
+        int next;
+
+        long checksum;
+
+        // Built once so the visitor benchmarks measure the query alone.
+        final IntervalConsumer sink = (start, end) -> {
+            checksum += start ^ end;
+            return true;
+        };
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = new Workload(distribution, size);
+            tree = new RedBlackIntervalTree();
+            for (int i = 0; i < size; i++) tree.insert(data.starts[i], data.ends[i]);
+        }
+
+        int nextQuery() {
+            return next++ & (Workload.QUERIES - 1);
+        }
+
+        void insertBatch() {
+            for (int i = 0; i < Workload.BATCH; i++) tree.insert(data.batchStarts[i], data.batchEnds[i]);
+        }
+
+        void deleteBatch() {
+            for (int i = 0; i < Workload.BATCH; i++) tree.delete(data.batchStarts[i], data.batchEnds[i]);
+        }
+    }
+
+    // Removes the batch again after every timed insert invocation.
+    @State(Scope.Benchmark)
+    public static class InsertState {
+        @TearDown(Level.Invocation)
+        public void tearDown(TreeState state) {
+            state.deleteBatch();
+        }
+    }
+
+    // Puts the batch in place before every timed delete invocation.
+    @State(Scope.Benchmark)
+    public static class DeleteState {
+        @Setup(Level.Invocation)
+        public void setUp(TreeState state) {
+            state.insertBatch();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void insert(TreeState state, InsertState insert) {
+        state.insertBatch();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.BATCH)
+    public void delete(TreeState state, DeleteState delete) {
+        state.deleteBatch();
+    }
+
+    @Benchmark
+    public Object findOverlapping(TreeState state) {
+        int q = state.nextQuery();
+        return state.tree.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q]);
+    }
+
+    @Benchmark
+    public long findOverlappingVisitor(TreeState state) {
+        int q = state.nextQuery();
+        state.tree.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], state.sink);
+        return state.checksum;
+    }
+
+    // Audit-style query over the whole key space, one thread against the
+    // ForkJoin split
+    @Benchmark
+    public long findOverlappingAllVisitor(TreeState state) {
+        state.tree.findOverlapping(Integer.MIN_VALUE, Integer.MAX_VALUE, state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public Object findOverlappingAllParallel(TreeState state) {
+        return state.tree.findOverlappingParallel(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int countOverlapping(TreeState state) {
+        int q = state.nextQuery();
+        return state.tree.countOverlapping(state.data.queryStarts[q], state.data.queryEnds[q]);
+    }
+
+    @Benchmark
+    public boolean anyOverlap(TreeState state) {
+        int q = state.nextQuery();
+        return state.tree.anyOverlap(state.data.queryStarts[q], state.data.queryEnds[q]);
+    }
+
+    @Benchmark
+    public long streamOverlapping(TreeState state) {
+        int q = state.nextQuery();
+        return state.tree.streamOverlapping(state.data.queryStarts[q], state.data.queryEnds[q]).count();
+    }
+
+    @Benchmark
+    public Object findContaining(TreeState state) {
+        return state.tree.findContaining(state.data.points[state.nextQuery()]);
+    }
+
+    @Benchmark
+    public long findContainingVisitor(TreeState state) {
+        state.tree.findContaining(state.data.points[state.nextQuery()], state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public int countContaining(TreeState state) {
+        return state.tree.countContaining(state.data.points[state.nextQuery()]);
+    }
+
+    // All QUERIES points per call, against the same points one by one
+    @Benchmark
+    @OperationsPerInvocation(Workload.QUERIES)
+    public Object findContainingBatch(TreeState state) {
+        return state.tree.findContaining(state.data.points);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.QUERIES)
+    public Object findContainingBatchSorted(TreeState state) {
+        return state.tree.findContaining(state.data.sortedPoints);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Workload.QUERIES)
+    public long findContainingEachSorted(TreeState state) {
+        for (int point : state.data.sortedPoints) state.tree.findContaining(point, state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public boolean anyContaining(TreeState state) {
+        return state.tree.anyContaining(state.data.points[state.nextQuery()]);
+    }
+
+    @Benchmark
+    public Object findMaxOverlapping(TreeState state) {
+        return state.tree.findMaxOverlapping();
+    }
+}
@@ -0,0 +1,85 @@
+package redblackintervaltree;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// All overlapping pairs between two trees of the same size and distribution:
+// overlapJoin, sequential and parallel, against one findOverlapping per
+// interval of the second set.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+@State(Scope.Benchmark)
+public class JoinBenchmark {
+
+    @Param({ "100000", "1000000", "10000000" })
+    int size;
+
+    @Param({ "UNIFORM", "CLUSTERED", "NESTED", "LONG_TAIL" })
+    Distribution distribution;
+
+    RedBlackIntervalTree left, right;
+
+    int[] rightStarts, rightEnds;
+
+    // Thread-safe so the parallel join can share it
+    final LongAdder pairs = new LongAdder();
+
+    final IntervalPairConsumer sink = (start, end, otherStart, otherEnd) -> {
+        pairs.increment();
+        return true;
+    };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[][] l = distribution.generate(size, 42);
+        int[][] r = distribution.generate(size, 17);
+        left = RedBlackIntervalTree.bulkLoad(l[0], l[1]);
+        right = RedBlackIntervalTree.bulkLoad(r[0], r[1]);
+        // The stored right intervals, equal starts already merged
+        rightStarts = new int[right.size()];
+        rightEnds = new int[right.size()];
+        int[] n = { 0 };
+        right.findOverlapping(Integer.MIN_VALUE, Integer.MAX_VALUE, (start, end) -> {
+            rightStarts[n[0]] = start;
+            rightEnds[n[0]++] = end;
+            return true;
+        });
+    }
+
+    @Benchmark
+    public long overlapJoin() {
+        left.overlapJoin(right, sink);
+        return pairs.sum();
+    }
+
+    @Benchmark
+    public long overlapJoinParallel() {
+        left.overlapJoin(right, sink, true);
+        return pairs.sum();
+    }
+
+    @Benchmark
+    public long findOverlappingEach() {
+        for (int i = 0; i < rightStarts.length; i++) {
+            int start = rightStarts[i], end = rightEnds[i];
+            left.findOverlapping(start, end, (s, e) -> sink.accept(s, e, start, end));
+        }
+        return pairs.sum();
+    }
+}
@@ -0,0 +1,123 @@
+package redblackintervaltree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The read-only layouts side by side on the IntervalTreeBenchmark query
+// workloads: the LLRB object tree, ImplicitIntervalTree's pointer-free arrays
+// and FrozenIntervalTree's Eytzinger order. All three come from the same
+// bulkLoad() tree, so only the layout differs. Each fork loads a single
+// layout, so the calls through Tree stay monomorphic.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class LayoutBenchmark {
+
+    public enum Layout { LLRB, IMPLICIT, FROZEN }
+
+    // The queries the benchmarks drive, forwarded to the layout
+    interface Tree {
+        boolean findOverlapping(int start, int end, IntervalConsumer consumer);
+
+        boolean findContaining(int point, IntervalConsumer consumer);
+    }
+
+    @State(Scope.Benchmark)
+    public static class TreeState {
+
+        @Param({ "1000", "100000", "1000000", "10000000", "50000000" })
+        int size;
+
+        @Param({ "UNIFORM", "CLUSTERED", "NESTED", "LONG_TAIL" })
+        Distribution distribution;
+
+        @Param({ "LLRB", "IMPLICIT", "FROZEN" })
+        Layout layout;
+
+        Tree tree;
+
+        Workload data;
+
+        int next;
+
+        long checksum;
+
+        final IntervalConsumer sink = (start, end) -> {
+            checksum += start ^ end;
+            return true;
+        };
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            data = new Workload(distribution, size);
+            tree = create(layout, RedBlackIntervalTree.bulkLoad(data.starts, data.ends));
+        }
+
+        int nextQuery() {
+            return next++ & (Workload.QUERIES - 1);
+        }
+    }
+
+    static Tree create(Layout layout, RedBlackIntervalTree source) {
+        switch (layout) {
+            case IMPLICIT: {
+                ImplicitIntervalTree tree = ImplicitIntervalTree.from(source);
+                return new Tree() {
+                    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+                        return tree.findOverlapping(start, end, consumer);
+                    }
+                    public boolean findContaining(int point, IntervalConsumer consumer) {
+                        return tree.findContaining(point, consumer);
+                    }
+                };
+            }
+            case FROZEN: {
+                FrozenIntervalTree tree = source.freeze();
+                return new Tree() {
+                    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+                        return tree.findOverlapping(start, end, consumer);
+                    }
+                    public boolean findContaining(int point, IntervalConsumer consumer) {
+                        return tree.findContaining(point, consumer);
+                    }
+                };
+            }
+            default:
+                return new Tree() {
+                    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+                        return source.findOverlapping(start, end, consumer);
+                    }
+                    public boolean findContaining(int point, IntervalConsumer consumer) {
+                        return source.findContaining(point, consumer);
+                    }
+                };
+        }
+    }
+
+    @Benchmark
+    public long findOverlappingVisitor(TreeState state) {
+        int q = state.nextQuery();
+        state.tree.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long findContainingVisitor(TreeState state) {
+        state.tree.findContaining(state.data.points[state.nextQuery()], state.sink);
+        return state.checksum;
+    }
+}
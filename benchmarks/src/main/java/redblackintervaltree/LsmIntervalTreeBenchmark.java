@@ -0,0 +1,120 @@
+package redblackintervaltree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Sustained inserts into LsmIntervalTree against RedBlackIntervalTree: the
+// time to insert every interval of the workload one by one, then the query
+// cost of the resulting layers.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class LsmIntervalTreeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LsmState {
+
+        @Param({ "1000000", "10000000" })
+        int size;
+
+        @Param({ "UNIFORM", "CLUSTERED", "NESTED", "LONG_TAIL" })
+        Distribution distribution;
+
+        Workload data;
+
+        LsmIntervalTree lsm;
+
+        RedBlackIntervalTree tree;
+
+        int next;
+
+        long checksum;
+
+        final IntervalConsumer sink = (start, end) -> {
+            checksum += start ^ end;
+            return true;
+        };
+
+        @Setup(Level.Trial)
+        public void setUp() throws InterruptedException {
+            data = new Workload(distribution, size);
+            lsm = new LsmIntervalTree();
+            tree = new RedBlackIntervalTree(true);
+            for (int i = 0; i < size; i++) {
+                lsm.insert(data.starts[i], data.ends[i]);
+                tree.insert(data.starts[i], data.ends[i]);
+            }
+            lsm.flush();
+            lsm.awaitCompaction();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            lsm.close();
+        }
+
+        int nextQuery() {
+            return next++ & (Workload.QUERIES - 1);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public LsmIntervalTree lsmInsertEach(LsmState state) {
+        LsmIntervalTree lsm = new LsmIntervalTree();
+        for (int i = 0; i < state.size; i++) lsm.insert(state.data.starts[i], state.data.ends[i]);
+        lsm.close();
+        return lsm;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RedBlackIntervalTree treeInsertEach(LsmState state) {
+        RedBlackIntervalTree tree = new RedBlackIntervalTree(true);
+        for (int i = 0; i < state.size; i++) tree.insert(state.data.starts[i], state.data.ends[i]);
+        return tree;
+    }
+
+    @Benchmark
+    public long lsmFindOverlapping(LsmState state) {
+        int q = state.nextQuery();
+        state.lsm.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long treeFindOverlapping(LsmState state) {
+        int q = state.nextQuery();
+        state.tree.findOverlapping(state.data.queryStarts[q], state.data.queryEnds[q], state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long lsmFindContaining(LsmState state) {
+        state.lsm.findContaining(state.data.points[state.nextQuery()], state.sink);
+        return state.checksum;
+    }
+
+    @Benchmark
+    public long treeFindContaining(LsmState state) {
+        state.tree.findContaining(state.data.points[state.nextQuery()], state.sink);
+        return state.checksum;
+    }
+}
@@ -0,0 +1,234 @@
+package redblackintervaltree;
+
+// Frozen copy of the recursive LLRB insert, delete and visitor queries
+// that RedBlackIntervalTree had before they became explicit-stack walks,
+// kept only so EngineBenchmark can measure the two side by side. Same node
+// layout (an Interval per node), augmentations (max, minEnd, count) and
+// merge of equal starts as a RedBlackIntervalTree without duplicates; no
+// depth tree, which the library only builds once findMaxOverlapping is
+// used. Not for use outside the benchmarks.
+final class RecursiveIntervalTree {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private Node root;
+
+    private static final class Node {
+        RedBlackIntervalTree.Interval interval;
+        Node left, right;
+        boolean color;
+        int max;
+        int minEnd;
+        int count;
+
+        Node(RedBlackIntervalTree.Interval interval) {
+            this.interval = interval;
+            this.color = RED;
+            this.max = interval.end;
+            this.minEnd = interval.end;
+            this.count = 1;
+        }
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    private static boolean isRed(Node x) {
+        return x != null && x.color == RED;
+    }
+
+    private static void flipColors(Node h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    private static Node rotateLeft(Node h) {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        x.minEnd = h.minEnd;
+        x.count = h.count;
+        update(h);
+        return x;
+    }
+
+    private static Node rotateRight(Node h) {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        x.minEnd = h.minEnd;
+        x.count = h.count;
+        update(h);
+        return x;
+    }
+
+    private static void update(Node h) {
+        h.max = Math.max(h.interval.end, Math.max(max(h.left), max(h.right)));
+        h.minEnd = Math.min(h.interval.end, Math.min(minEnd(h.left), minEnd(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+    }
+
+    private static int max(Node x) {
+        return x == null ? Integer.MIN_VALUE : x.max;
+    }
+
+    private static int minEnd(Node x) {
+        return x == null ? Integer.MAX_VALUE : x.minEnd;
+    }
+
+    private static int size(Node x) {
+        return x == null ? 0 : x.count;
+    }
+
+    void insert(int start, int end) {
+        if (start > end) return;
+        root = insert(root, new RedBlackIntervalTree.Interval(start, end));
+        root.color = BLACK;
+    }
+
+    private static Node insert(Node h, RedBlackIntervalTree.Interval interval) {
+        if (h == null) return new Node(interval);
+
+        if (interval.start < h.interval.start) h.left = insert(h.left, interval);
+        else if (interval.start > h.interval.start) h.right = insert(h.right, interval);
+        else if (interval.end > h.interval.end) h.interval.end = interval.end;
+
+        return fixUp(h);
+    }
+
+    private static Node fixUp(Node h) {
+        if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+        update(h);
+        return h;
+    }
+
+    void delete(int start, int end) {
+        if (start > end || !contains(start, end)) return;
+        if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+        root = delete(root, start);
+        if (root != null) root.color = BLACK;
+    }
+
+    private boolean contains(int start, int end) {
+        Node x = root;
+        while (x != null) {
+            if (start < x.interval.start) x = x.left;
+            else if (start > x.interval.start) x = x.right;
+            else return end == x.interval.end;
+        }
+        return false;
+    }
+
+    private static Node delete(Node h, int start) {
+        if (start < h.interval.start) {
+            if (!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            h.left = delete(h.left, start);
+        } else {
+            if (isRed(h.left))
+                h = rotateRight(h);
+            if (start == h.interval.start && h.right == null)
+                return null;
+            if (!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+            if (start == h.interval.start) {
+                h.interval = min(h.right).interval;
+                h.right = deleteMin(h.right);
+            } else {
+                h.right = delete(h.right, start);
+            }
+        }
+        return balance(h);
+    }
+
+    private static Node deleteMin(Node h) {
+        if (h.left == null) return null;
+        if (!isRed(h.left) && !isRed(h.left.left))
+            h = moveRedLeft(h);
+        h.left = deleteMin(h.left);
+        return balance(h);
+    }
+
+    private static Node moveRedLeft(Node h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private static Node moveRedRight(Node h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private static Node min(Node x) {
+        while (x.left != null) x = x.left;
+        return x;
+    }
+
+    private static Node balance(Node h) {
+        if (isRed(h.right)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+        update(h);
+        return h;
+    }
+
+    boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        return start > end || findOverlapping(root, start, end, consumer);
+    }
+
+    private static boolean findOverlapping(Node x, int start, int end, IntervalConsumer consumer) {
+        if (x == null) return true;
+        RedBlackIntervalTree.Interval i = x.interval;
+        if (i.start <= end && start <= i.end && !consumer.accept(i.start, i.end)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= start
+                && !findOverlapping(x.left, start, end, consumer)) {
+            return false;
+        }
+        if (x.right != null && i.start <= end) {
+            return findOverlapping(x.right, start, end, consumer);
+        }
+        return true;
+    }
+
+    boolean findContaining(int point, IntervalConsumer consumer) {
+        return findContaining(root, point, consumer);
+    }
+
+    private static boolean findContaining(Node x, int point, IntervalConsumer consumer) {
+        if (x == null) return true;
+        RedBlackIntervalTree.Interval i = x.interval;
+        if (i.start <= point && point <= i.end && !consumer.accept(i.start, i.end)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= point
+                && !findContaining(x.left, point, consumer)) {
+            return false;
+        }
+        if (x.right != null && i.start <= point) {
+            return findContaining(x.right, point, consumer);
+        }
+        return true;
+    }
+}
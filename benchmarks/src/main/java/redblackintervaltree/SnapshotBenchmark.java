@@ -0,0 +1,76 @@
+package redblackintervaltree;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Restart cost: opening a snapshot and answering a first query in place,
+// against reading it back into a tree and against re-inserting every
+// interval. Mapped pages stay in the page cache between iterations, so this
+// is a warm restart.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({ "1000000", "50000000" })
+    int size;
+
+    @Param({ "UNIFORM", "LONG_TAIL" })
+    Distribution distribution;
+
+    int[] starts, ends;
+
+    Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int[][] data = distribution.generate(size, 42);
+        starts = data[0];
+        ends = data[1];
+        file = Files.createTempFile("intervals", ".snapshot");
+        RedBlackIntervalTree.bulkLoad(starts, ends).writeSnapshot(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object openMapped() throws IOException {
+        try (MappedIntervalIndex index = MappedIntervalIndex.open(file)) {
+            return index.findContaining(starts[0]);
+        }
+    }
+
+    @Benchmark
+    public RedBlackIntervalTree readSnapshot() throws IOException {
+        return RedBlackIntervalTree.readSnapshot(file);
+    }
+
+    @Benchmark
+    public RedBlackIntervalTree insertEach() {
+        RedBlackIntervalTree tree = new RedBlackIntervalTree();
+        for (int i = 0; i < size; i++) tree.insert(starts[i], ends[i]);
+        return tree;
+    }
+}
@@ -0,0 +1,54 @@
+package redblackintervaltree;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Data shared by the benchmarks for one (distribution, size) pair: the stored
+// intervals, an update batch that is never stored, and query ranges/points.
+final class Workload {
+
+    // Intervals inserted or deleted per invocation of the update benchmarks.
+    // Kept below the smallest size so a batch at most doubles a small tree.
+    static final int BATCH = 512;
+
+    static final int QUERIES = 1 << 12;
+
+    final int[] starts, ends;
+
+    // Distinct odd starts, so never present among the even stored starts.
+    final int[] batchStarts = new int[BATCH];
+    final int[] batchEnds = new int[BATCH];
+
+    final int[] queryStarts, queryEnds, points;
+
+    // The query points in ascending order, as a timestamp stream would be
+    final int[] sortedPoints;
+
+    Workload(Distribution distribution, int size) {
+        int[][] data = distribution.generate(size, 42);
+        starts = data[0];
+        ends = data[1];
+
+        int[][] extra = distribution.generate(BATCH, 7);
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < BATCH; i++) {
+            int start = extra[0][i] + 1;
+            while (!seen.add(start)) start += 2;
+            batchStarts[i] = start;
+            batchEnds[i] = start + (extra[1][i] - extra[0][i]);
+        }
+
+        int[][] queries = distribution.generate(QUERIES, 11);
+        queryStarts = queries[0];
+        queryEnds = queries[1];
+        points = new int[QUERIES];
+        Random rnd = new Random(13);
+        for (int i = 0; i < QUERIES; i++) {
+            points[i] = queryStarts[i] + rnd.nextInt(queryEnds[i] - queryStarts[i] + 1);
+        }
+        sortedPoints = points.clone();
+        Arrays.sort(sortedPoints);
+    }
+}
@@ -0,0 +1,315 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// RedBlackIntervalTree laid out as a struct of arrays: node i lives at index i
+// of parallel primitive arrays and links are int indices, so the tree costs
+// about 25 bytes per interval and holds no objects per node. Freed slots are
+// chained through left[] and reused before the arrays grow.
+public class ArenaIntervalTree {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static final int NIL = -1;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private int[] start, end, max, count, left, right;
+    private boolean[] color;
+
+    private int root = NIL;
+    private int free = NIL;
+    private int used;
+
+    public ArenaIntervalTree() {
+        this(16);
+    }
+
+    public ArenaIntervalTree(int capacity) {
+        capacity = Math.max(capacity, 1);
+        start = new int[capacity];
+        end = new int[capacity];
+        max = new int[capacity];
+        count = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        color = new boolean[capacity];
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    // Slot management
+    private int allocate(int s, int e) {
+        int x;
+        if (free != NIL) {
+            x = free;
+            free = left[x];
+        } else {
+            if (used == start.length) grow();
+            x = used++;
+        }
+        start[x] = s;
+        end[x] = e;
+        max[x] = e;
+        count[x] = 1;
+        left[x] = NIL;
+        right[x] = NIL;
+        color[x] = RED;
+        return x;
+    }
+
+    private void release(int x) {
+        left[x] = free;
+        free = x;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * start.length);
+        if (capacity == start.length) throw new IllegalStateException("Arena is full");
+        start = Arrays.copyOf(start, capacity);
+        end = Arrays.copyOf(end, capacity);
+        max = Arrays.copyOf(max, capacity);
+        count = Arrays.copyOf(count, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        color = Arrays.copyOf(color, capacity);
+    }
+
+    // Helper methods
+    private boolean isRed(int x) {
+        if (x == NIL) return false;
+        return color[x] == RED;
+    }
+
+    private void flipColors(int h) {
+        color[h] = !color[h];
+        color[left[h]] = !color[left[h]];
+        color[right[h]] = !color[right[h]];
+    }
+
+    private int rotateLeft(int h) {
+        int x = right[h];
+        right[h] = left[x];
+        left[x] = h;
+        color[x] = color[h];
+        color[h] = RED;
+        max[x] = max[h];
+        max[h] = Math.max(end[h], Math.max(max(left[h]), max(right[h])));
+        count[x] = count[h];
+        count[h] = 1 + size(left[h]) + size(right[h]);
+        return x;
+    }
+
+    private int rotateRight(int h) {
+        int x = left[h];
+        left[h] = right[x];
+        right[x] = h;
+        color[x] = color[h];
+        color[h] = RED;
+        max[x] = max[h];
+        max[h] = Math.max(end[h], Math.max(max(left[h]), max(right[h])));
+        count[x] = count[h];
+        count[h] = 1 + size(left[h]) + size(right[h]);
+        return x;
+    }
+
+    private int max(int x) {
+        if (x == NIL) return Integer.MIN_VALUE;
+        return max[x];
+    }
+
+    private int size(int x) {
+        if (x == NIL) return 0;
+        return count[x];
+    }
+
+    // Insert Interval
+    public void insert(int start, int end) {
+        if (start > end) {
+            System.err.println("Error inserting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        root = insert(root, start, end);
+        color[root] = BLACK;
+    }
+
+    private int insert(int h, int s, int e) {
+        if (h == NIL) return allocate(s, e);
+
+        // Read the child first: allocating may replace the arrays, and
+        // left[h] = insert(...) would store into the old one.
+        int cmp = Integer.compare(s, start[h]);
+        if (cmp < 0) {
+            int x = insert(left[h], s, e);
+            left[h] = x;
+        } else if (cmp > 0) {
+            int x = insert(right[h], s, e);
+            right[h] = x;
+        } else if (e > end[h]) end[h] = e;
+
+        if (isRed(right[h]) && !isRed(left[h])) h = rotateLeft(h);
+        if (isRed(left[h]) && isRed(left[left[h]])) h = rotateRight(h);
+        if (isRed(left[h]) && isRed(right[h])) flipColors(h);
+
+        max[h] = Math.max(end[h], Math.max(max(left[h]), max(right[h])));
+        count[h] = 1 + size(left[h]) + size(right[h]);
+        return h;
+    }
+
+    // Delete Interval
+    public void delete(int start, int end) {
+        if (start > end) {
+            System.err.println("Error deleting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        if (!contains(start, end)) return;
+        if (!isRed(left[root]) && !isRed(right[root])) color[root] = RED;
+        root = delete(root, start, end);
+        if (root != NIL) color[root] = BLACK;
+    }
+
+    public boolean contains(int s, int e) {
+        int x = root;
+        while (x != NIL) {
+            int cmp = Integer.compare(s, start[x]);
+            if (cmp < 0) x = left[x];
+            else if (cmp > 0) x = right[x];
+            else return e == end[x];
+        }
+        return false;
+    }
+
+    private boolean matches(int h, int s, int e) {
+        return s == start[h] && e == end[h];
+    }
+
+    private int delete(int h, int s, int e) {
+        if (s < start[h]) {
+            if (!isRed(left[h]) && !isRed(left[left[h]]))
+                h = moveRedLeft(h);
+            left[h] = delete(left[h], s, e);
+        } else {
+            if (isRed(left[h]))
+                h = rotateRight(h);
+            if (matches(h, s, e) && right[h] == NIL) {
+                release(h);
+                return NIL;
+            }
+            if (!isRed(right[h]) && !isRed(left[right[h]]))
+                h = moveRedRight(h);
+            if (matches(h, s, e)) {
+                int x = min(right[h]);
+                start[h] = start[x];
+                end[h] = end[x];
+                right[h] = deleteMin(right[h]);
+            } else {
+                right[h] = delete(right[h], s, e);
+            }
+        }
+        return balance(h);
+    }
+
+    private int moveRedLeft(int h) {
+        flipColors(h);
+        if (isRed(left[right[h]])) {
+            right[h] = rotateRight(right[h]);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private int moveRedRight(int h) {
+        flipColors(h);
+        if (isRed(left[left[h]])) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private int min(int x) {
+        while (left[x] != NIL) x = left[x];
+        return x;
+    }
+
+    private int deleteMin(int h) {
+        if (left[h] == NIL) {
+            release(h);
+            return NIL;
+        }
+        if (!isRed(left[h]) && !isRed(left[left[h]]))
+            h = moveRedLeft(h);
+        left[h] = deleteMin(left[h]);
+        return balance(h);
+    }
+
+    private int balance(int h) {
+        if (isRed(right[h])) h = rotateLeft(h);
+        if (isRed(left[h]) && isRed(left[left[h]])) h = rotateRight(h);
+        if (isRed(left[h]) && isRed(right[h])) flipColors(h);
+
+        max[h] = Math.max(end[h], Math.max(max(left[h]), max(right[h])));
+        count[h] = 1 + size(left[h]) + size(right[h]);
+        return h;
+    }
+
+    // Find Overlapping Intervals
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        return findOverlapping(root, start, end, consumer);
+    }
+
+    private boolean findOverlapping(int x, int s, int e, IntervalConsumer consumer) {
+        if (x == NIL) return true;
+        if (start[x] <= e && s <= end[x] && !consumer.accept(start[x], end[x])) {
+            return false;
+        }
+        if (left[x] != NIL && max[left[x]] >= s && !findOverlapping(left[x], s, e, consumer)) {
+            return false;
+        }
+        if (right[x] != NIL && start[x] <= e) {
+            return findOverlapping(right[x], s, e, consumer);
+        }
+        return true;
+    }
+
+    // Find All Contained Intervals
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findContaining(point, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findContaining(root, point, consumer);
+    }
+
+    private boolean findContaining(int x, int point, IntervalConsumer consumer) {
+        if (x == NIL) return true;
+        if (start[x] <= point && point <= end[x] && !consumer.accept(start[x], end[x])) {
+            return false;
+        }
+        if (left[x] != NIL && max[left[x]] >= point && !findContaining(left[x], point, consumer)) {
+            return false;
+        }
+        if (right[x] != NIL && start[x] <= point) {
+            return findContaining(right[x], point, consumer);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,269 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// RedBlackIntervalTree's operations over a B+-tree with wide nodes. A leaf
+// holds up to B intervals in sorted primitive arrays; an inner node holds up
+// to B children with a lower bound on each child's starts and each child's
+// max end. A query visits about log_B(n) levels instead of log_2(n) and
+// scans every node it reaches linearly over a few cache lines. Equal starts
+// merge like in RedBlackIntervalTree.
+public class BTreeIntervalTree {
+
+    static final int B = 32;
+
+    // Fewest entries of a node other than the root
+    private static final int MIN = B / 2;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    // Leaves use starts/ends, inner nodes children/keys/max. keys[i] is at
+    // most the smallest start under children[i] and above every start under
+    // children[i - 1]; an inner node's keys[0] matches its key in the parent.
+    private static final class Node {
+        final boolean leaf;
+        int n;
+        int[] starts, ends;
+        Node[] children;
+        int[] keys, max;
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+            if (leaf) {
+                starts = new int[B];
+                ends = new int[B];
+            } else {
+                children = new Node[B];
+                keys = new int[B];
+                max = new int[B];
+            }
+        }
+    }
+
+    private Node root = new Node(true);
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    // Helper methods
+    private static int lowKey(Node x) {
+        return x.leaf ? x.starts[0] : x.keys[0];
+    }
+
+    private static int maxOf(Node x) {
+        int[] values = x.leaf ? x.ends : x.max;
+        int m = Integer.MIN_VALUE;
+        for (int i = 0; i < x.n; i++) m = Math.max(m, values[i]);
+        return m;
+    }
+
+    // First index of the leaf whose start is at least start
+    private static int search(Node leaf, int start) {
+        int i = 0;
+        while (i < leaf.n && leaf.starts[i] < start) i++;
+        return i;
+    }
+
+    // Child of an inner node whose range holds start
+    private static int child(Node x, int start) {
+        int i = 1;
+        while (i < x.n && x.keys[i] <= start) i++;
+        return i - 1;
+    }
+
+    // Moves entries [from, n) of x to the front of a new node
+    private static Node split(Node x, int from) {
+        Node right = new Node(x.leaf);
+        move(x, from, right, 0, x.n - from);
+        right.n = x.n - from;
+        truncate(x, from);
+        return right;
+    }
+
+    private static void move(Node from, int i, Node to, int j, int count) {
+        if (from.leaf) {
+            System.arraycopy(from.starts, i, to.starts, j, count);
+            System.arraycopy(from.ends, i, to.ends, j, count);
+        } else {
+            System.arraycopy(from.children, i, to.children, j, count);
+            System.arraycopy(from.keys, i, to.keys, j, count);
+            System.arraycopy(from.max, i, to.max, j, count);
+        }
+    }
+
+    // Opens a gap of by entries at i, or with a negative by closes the one
+    // before i
+    private static void shift(Node x, int i, int by) {
+        move(x, i, x, i + by, x.n - i);
+        if (by < 0) truncate(x, x.n + by);
+        else x.n += by;
+    }
+
+    // Cuts x down to n entries, dropping the children past them
+    private static void truncate(Node x, int n) {
+        if (!x.leaf) Arrays.fill(x.children, n, x.n, null);
+        x.n = n;
+    }
+
+    // Insert Interval
+    public void insert(int start, int end) {
+        if (start > end) {
+            System.err.println("Error inserting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        Node sibling = insert(root, start, end);
+        if (sibling != null) {
+            Node top = new Node(false);
+            top.children[0] = root;
+            top.keys[0] = lowKey(root);
+            top.max[0] = maxOf(root);
+            top.children[1] = sibling;
+            top.keys[1] = lowKey(sibling);
+            top.max[1] = maxOf(sibling);
+            top.n = 2;
+            root = top;
+        }
+    }
+
+    // Returns the new right sibling if x had to split
+    private Node insert(Node x, int start, int end) {
+        if (x.leaf) {
+            int i = search(x, start);
+            if (i < x.n && x.starts[i] == start) {
+                x.ends[i] = Math.max(x.ends[i], end);
+                return null;
+            }
+            size++;
+            Node right = x.n == B ? split(x, B / 2) : null;
+            Node into = right != null && i > x.n ? right : x;
+            if (into == right) i -= x.n;
+            shift(into, i, 1);
+            into.starts[i] = start;
+            into.ends[i] = end;
+            return right;
+        }
+
+        int i = child(x, start);
+        Node c = x.children[i];
+        Node sibling = insert(c, start, end);
+        x.max[i] = Math.max(x.max[i], end);
+        if (sibling == null) return null;
+        x.max[i] = maxOf(c);
+
+        int at = i + 1;
+        Node right = x.n == B ? split(x, B / 2) : null;
+        Node into = right != null && at > x.n ? right : x;
+        if (into == right) at -= x.n;
+        shift(into, at, 1);
+        into.children[at] = sibling;
+        into.keys[at] = lowKey(sibling);
+        into.max[at] = maxOf(sibling);
+        return right;
+    }
+
+    // Delete Interval: removes [start, end] if stored exactly
+    public void delete(int start, int end) {
+        if (start > end) {
+            System.err.println("Error deleting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        if (!delete(root, start, end)) return;
+        size--;
+        if (!root.leaf && root.n == 1) root = root.children[0];
+    }
+
+    private boolean delete(Node x, int start, int end) {
+        if (x.leaf) {
+            int i = search(x, start);
+            if (i == x.n || x.starts[i] != start || x.ends[i] != end) return false;
+            shift(x, i + 1, -1);
+            return true;
+        }
+        int i = child(x, start);
+        Node c = x.children[i];
+        if (!delete(c, start, end)) return false;
+        if (c.n < MIN && x.n > 1) rebalance(x, i);
+        else x.max[i] = maxOf(c);
+        return true;
+    }
+
+    // Merges the underfull child i with a neighbour, or evens out the two
+    // when they do not fit in one node
+    private static void rebalance(Node x, int i) {
+        int l = i > 0 ? i - 1 : i, r = l + 1;
+        Node left = x.children[l], right = x.children[r];
+        int total = left.n + right.n;
+        if (total <= B) {
+            move(right, 0, left, left.n, right.n);
+            left.n = total;
+            shift(x, r + 1, -1);
+            x.max[l] = maxOf(left);
+            return;
+        }
+        int keep = total / 2;
+        if (left.n > keep) {
+            int count = left.n - keep;
+            shift(right, 0, count);
+            move(left, keep, right, 0, count);
+            truncate(left, keep);
+        } else {
+            int count = keep - left.n;
+            move(right, 0, left, left.n, count);
+            left.n = keep;
+            shift(right, count, -count);
+        }
+        x.keys[r] = lowKey(right);
+        x.max[l] = maxOf(left);
+        x.max[r] = maxOf(right);
+    }
+
+    public boolean contains(int start, int end) {
+        Node x = root;
+        while (!x.leaf) x = x.children[child(x, start)];
+        int i = search(x, start);
+        return i < x.n && x.starts[i] == start && x.ends[i] == end;
+    }
+
+    // Find Overlapping Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    // Find Overlapping Intervals without allocating, returns false if the
+    // consumer stopped the query
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        return findOverlapping(root, start, end, consumer);
+    }
+
+    private boolean findOverlapping(Node x, int start, int end, IntervalConsumer consumer) {
+        if (x.leaf) {
+            for (int i = 0; i < x.n && x.starts[i] <= end; i++) {
+                if (x.ends[i] >= start && !consumer.accept(x.starts[i], x.ends[i])) return false;
+            }
+            return true;
+        }
+        for (int i = 0; i < x.n && (i == 0 || x.keys[i] <= end); i++) {
+            if (x.max[i] >= start && !findOverlapping(x.children[i], start, end, consumer)) return false;
+        }
+        return true;
+    }
+
+    // Find All Contained Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return findOverlapping(point, point);
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findOverlapping(point, point, consumer);
+    }
+}
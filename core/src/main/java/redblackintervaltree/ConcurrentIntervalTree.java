@@ -0,0 +1,369 @@
+package redblackintervaltree;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+// Thread-safe RedBlackIntervalTree for many readers and few writers. Updates
+// take the write lock; queries first walk the tree under an optimistic read
+// stamp and only keep the result if no write happened meanwhile. Otherwise
+// the walk is rerun under the read lock.
+//
+// A walk that races a writer can see a half-rotated tree, so the optimistic
+// pass is allowed to fail: a null child, or a walk deeper than any valid tree
+// of its size, which is how a cycle of links shows, ends in the read-lock
+// retry.
+//
+// The list queries collect every hit in one walk and return a snapshot. The
+// visitor queries hand hits over in key order, CHUNK at a time: each chunk
+// comes from its own walk, validated like a whole query, and the next walk
+// resumes after the last hit delivered. A consumer that stops early so ends
+// the query after its chunk, and a write between two chunks only shows in
+// the hits not yet delivered. Hits reach the consumer while no lock is held,
+// so a consumer may call back into the tree.
+public class ConcurrentIntervalTree {
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private final RedBlackIntervalTree tree;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Hits per chunk of a visitor query
+    private static final int CHUNK = 64;
+
+    // Chunk buffer of the visitor queries, one per thread. A query takes it
+    // out while it runs, so a consumer that queries again gets its own.
+    private static final ThreadLocal<int[]> PAIRS = new ThreadLocal<>();
+
+    public ConcurrentIntervalTree() {
+        this(false);
+    }
+
+    public ConcurrentIntervalTree(boolean allowDuplicates) {
+        this.tree = new RedBlackIntervalTree(allowDuplicates);
+    }
+
+    // Takes over a tree that nothing else references
+    ConcurrentIntervalTree(RedBlackIntervalTree tree) {
+        this.tree = tree;
+    }
+
+    public void insert(int start, int end) {
+        long stamp = lock.writeLock();
+        try {
+            tree.insert(start, end);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void delete(int start, int end) {
+        long stamp = lock.writeLock();
+        try {
+            tree.delete(start, end);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void insertAll(int[] starts, int[] ends) {
+        long stamp = lock.writeLock();
+        try {
+            tree.insertAll(starts, ends);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void deleteAll(int[] starts, int[] ends) {
+        long stamp = lock.writeLock();
+        try {
+            tree.deleteAll(starts, ends);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Writers wait for the snapshot, readers do not
+    public void writeSnapshot(Path path) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            tree.writeSnapshot(path);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public FrozenIntervalTree freeze() {
+        long stamp = lock.readLock();
+        try {
+            return tree.freeze();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = tree.size();
+        if (lock.validate(stamp)) return size;
+        stamp = lock.readLock();
+        try {
+            return tree.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Find Overlapping Intervals; the returned intervals are copies
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        return collectOverlapping(start, end).toList();
+    }
+
+    // Find Overlapping Intervals in key order, CHUNK hits at a time; returns
+    // false if the consumer stopped the query
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        int[] pairs = PAIRS.get();
+        if (pairs == null) pairs = new int[2 * CHUNK];
+        else PAIRS.set(null);
+        try {
+            boolean resume = false;
+            int fromStart = 0, fromEnd = 0, seen = 0;
+            while (true) {
+                int n = fillOverlapping(start, end, resume, fromStart, fromEnd, seen, pairs);
+                for (int i = 0; i < 2 * n; i += 2) {
+                    if (!consumer.accept(pairs[i], pairs[i + 1])) return false;
+                }
+                if (n < CHUNK) return true;
+                // The cursor is the last hit, with how many entries equal to
+                // it were delivered, counting earlier chunks ending on it too
+                int last = 2 * n - 2, s = pairs[last], e = pairs[last + 1], equal = 1;
+                while (equal < n && pairs[last - 2 * equal] == s && pairs[last - 2 * equal + 1] == e) equal++;
+                seen = equal == n && resume && s == fromStart && e == fromEnd ? seen + n : equal;
+                resume = true;
+                fromStart = s;
+                fromEnd = e;
+            }
+        } finally {
+            PAIRS.set(pairs);
+        }
+    }
+
+    // One chunk of a visitor query, optimistically if no write interferes
+    private int fillOverlapping(int start, int end, boolean resume, int fromStart, int fromEnd, int seen, int[] pairs) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int n = tree.fillOverlapping(start, end, resume, fromStart, fromEnd, seen, pairs);
+                if (lock.validate(stamp)) return n;
+            } catch (RuntimeException e) {
+                // torn read, retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.fillOverlapping(start, end, resume, fromStart, fromEnd, seen, pairs);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Hits collectOverlapping(int start, int end) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return new Hits(null);
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Hits hits = new Hits(lock);
+            hits.stamp = stamp;
+            if (hits.run(() -> tree.findOverlapping(start, end, hits))) return hits;
+        }
+        stamp = lock.readLock();
+        try {
+            Hits hits = new Hits(null);
+            tree.findOverlapping(start, end, hits);
+            return hits;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Wide parallel query; like the batch sweep it holds the read lock
+    // throughout instead of racing writers
+    public IntervalHits findOverlappingParallel(int start, int end) {
+        long stamp = lock.readLock();
+        try {
+            return tree.findOverlappingParallel(start, end);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Find All Contained Intervals; the returned intervals are copies
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return collectContaining(point).toList();
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findOverlapping(point, point, consumer);
+    }
+
+    private Hits collectContaining(int point) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Hits hits = new Hits(lock);
+            hits.stamp = stamp;
+            if (hits.run(() -> tree.findContaining(point, hits))) return hits;
+        }
+        stamp = lock.readLock();
+        try {
+            Hits hits = new Hits(null);
+            tree.findContaining(point, hits);
+            return hits;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // A batch sweep is long enough that a racing write would waste it, so it
+    // runs under the read lock rather than optimistically
+    public IntervalHits findContaining(int[] points) {
+        long stamp = lock.readLock();
+        try {
+            return tree.findContaining(points);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Count Overlapping Intervals under an optimistic stamp, like the queries
+    public int countOverlapping(int start, int end) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int count = tree.countOverlapping(start, end);
+                if (lock.validate(stamp)) return count;
+            } catch (RuntimeException e) {
+                // torn read, retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.countOverlapping(start, end);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int countContaining(int point) {
+        return countOverlapping(point, point);
+    }
+
+    public boolean anyOverlap(int start, int end) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean any = tree.anyOverlap(start, end);
+                if (lock.validate(stamp)) return any;
+            } catch (RuntimeException e) {
+                // torn read, retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.anyOverlap(start, end);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean anyContaining(int point) {
+        return anyOverlap(point, point);
+    }
+
+    // Depth queries are short enough to take the read lock directly, except
+    // the one that builds the endpoint tree, which needs the write lock.
+    public RedBlackIntervalTree.Interval findMaxOverlapping() {
+        long stamp = depthLock();
+        try {
+            return tree.findMaxOverlapping();
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    public int maxOverlapDepth() {
+        long stamp = depthLock();
+        try {
+            return tree.maxOverlapDepth();
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    private long depthLock() {
+        long stamp = lock.readLock();
+        if (tree.hasDepthTree()) return stamp;
+        long write = lock.tryConvertToWriteLock(stamp);
+        if (write != 0) return write;
+        lock.unlockRead(stamp);
+        return lock.writeLock();
+    }
+
+    // Hits of one query as packed (start, end) pairs. When given a lock, the
+    // collection is optimistic: every CHECK hits the stamp is validated, so a
+    // wide walk that a writer already spoiled stops early.
+    private static final class Hits implements IntervalConsumer {
+
+        private static final int CHECK = 64;
+
+        private final StampedLock lock;
+
+        long stamp;
+
+        int[] pairs = new int[16];
+
+        int n;
+
+        Hits(StampedLock lock) {
+            this.lock = lock;
+        }
+
+        @Override
+        public boolean accept(int start, int end) {
+            if (n == pairs.length) {
+                pairs = Arrays.copyOf(pairs, n * 2);
+            }
+            pairs[n++] = start;
+            pairs[n++] = end;
+            return lock == null || (n & (2 * CHECK - 1)) != 0 || lock.validate(stamp);
+        }
+
+        // Runs an optimistic walk, true if its hits can be trusted
+        boolean run(Runnable walk) {
+            try {
+                walk.run();
+            } catch (RuntimeException e) {
+                return false;
+            }
+            return lock.validate(stamp);
+        }
+
+        List<RedBlackIntervalTree.Interval> toList() {
+            List<RedBlackIntervalTree.Interval> result = new ArrayList<>(n / 2);
+            for (int i = 0; i < n; i += 2) {
+                result.add(new RedBlackIntervalTree.Interval(pairs[i], pairs[i + 1]));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package redblackintervaltree;
+
+// Left-leaning red-black tree over interval endpoints. Each key holds the net
+// number of intervals opening (+1) or closing (-1) there; every node keeps the
+// largest prefix sum of its subtree, which is the deepest overlap, and where
+// that depth is first reached.
+final class DepthTree {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    // Marks a maximal run that lasts until the next key outside the subtree.
+    static final int OPEN = Integer.MAX_VALUE;
+
+    private Node root;
+    private boolean emptied;
+
+    private static class Node {
+        int key;
+        int weight;
+        Node left, right;
+        boolean color;
+        int low;    // smallest key in the subtree
+        int sum;    // total weight of the subtree
+        int best;   // largest prefix sum over the subtree
+        int point;  // first key where best is reached
+        int until;  // last point of that run, or OPEN
+
+        Node(int key, int weight) {
+            this.key = key;
+            this.weight = weight;
+            this.color = RED;
+            update(this);
+        }
+    }
+
+    // Deepest overlap, 0 when empty
+    int best() {
+        return root == null ? 0 : root.best;
+    }
+
+    // First point covered by best() intervals
+    int point() {
+        return root.point;
+    }
+
+    // Last point of the run starting at point()
+    int until() {
+        return root.until;
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    // Adds delta to the weight at key, dropping keys whose weight reaches 0
+    void add(int key, int delta) {
+        emptied = false;
+        root = add(root, key, delta);
+        root.color = BLACK;
+        if (emptied) {
+            if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+            root = delete(root, key);
+            if (root != null) root.color = BLACK;
+        }
+    }
+
+    private Node add(Node h, int key, int delta) {
+        if (h == null) return new Node(key, delta);
+
+        int cmp = Integer.compare(key, h.key);
+        if (cmp < 0) h.left = add(h.left, key, delta);
+        else if (cmp > 0) h.right = add(h.right, key, delta);
+        else {
+            h.weight += delta;
+            emptied = h.weight == 0;
+        }
+
+        if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        update(h);
+        return h;
+    }
+
+    private Node delete(Node h, int key) {
+        if (key < h.key) {
+            if (!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            h.left = delete(h.left, key);
+        } else {
+            if (isRed(h.left))
+                h = rotateRight(h);
+            if (key == h.key && h.right == null)
+                return null;
+            if (!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+            if (key == h.key) {
+                Node x = min(h.right);
+                h.key = x.key;
+                h.weight = x.weight;
+                h.right = deleteMin(h.right);
+            } else {
+                h.right = delete(h.right, key);
+            }
+        }
+        return balance(h);
+    }
+
+    private Node min(Node x) {
+        while (x.left != null) x = x.left;
+        return x;
+    }
+
+    private Node deleteMin(Node h) {
+        if (h.left == null) return null;
+        if (!isRed(h.left) && !isRed(h.left.left))
+            h = moveRedLeft(h);
+        h.left = deleteMin(h.left);
+        return balance(h);
+    }
+
+    private Node moveRedLeft(Node h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node moveRedRight(Node h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node balance(Node h) {
+        if (isRed(h.right)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        update(h);
+        return h;
+    }
+
+    private boolean isRed(Node x) {
+        if (x == null) return false;
+        return x.color == RED;
+    }
+
+    private void flipColors(Node h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    private Node rotateLeft(Node h) {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        update(h);
+        update(x);
+        return x;
+    }
+
+    private Node rotateRight(Node h) {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        update(h);
+        update(x);
+        return x;
+    }
+
+    private static int sum(Node x) {
+        if (x == null) return 0;
+        return x.sum;
+    }
+
+    // Recomputes the subtree aggregates of h from its children, preferring
+    // the leftmost point on ties.
+    private static void update(Node h) {
+        Node l = h.left, r = h.right;
+        int prefix = sum(l) + h.weight;
+        h.low = l == null ? h.key : l.low;
+        h.sum = prefix + sum(r);
+        if (l != null) {
+            h.best = l.best;
+            h.point = l.point;
+            h.until = l.until == OPEN ? h.key - 1 : l.until;
+        }
+        if (l == null || prefix > h.best) {
+            h.best = prefix;
+            h.point = h.key;
+            h.until = r == null ? OPEN : r.low - 1;
+        }
+        if (r != null && prefix + r.best > h.best) {
+            h.best = prefix + r.best;
+            h.point = r.point;
+            h.until = r.until;
+        }
+    }
+}
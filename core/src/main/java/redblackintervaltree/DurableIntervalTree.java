@@ -0,0 +1,373 @@
+package redblackintervaltree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+// ConcurrentIntervalTree that survives crashes. Every insert and delete is
+// appended to a write-ahead log as a 13-byte record (op, start, end, then a
+// CRC32C of those nine bytes) and returns only once the record is on disk.
+//
+// Forcing is group committed: the first writer to wait holds the commit open
+// for up to the time window, or until the size window fills, and a single
+// fsync then covers every record appended meanwhile. The write and fsync run
+// outside the lock, so the next group gathers while they do. A zero window
+// forces each record on its own; a lone writer pays the full window on every
+// update, so the window only pays with several writing threads.
+//
+// The directory holds snapshot-<g>, the tree as of checkpoint g, and wal-<g>,
+// the records since. Opening loads the newest snapshot and replays its log.
+// Bad records at the end of the log, up to a partial last one, come from a
+// group whose write a crash cut short; none of them was acknowledged, so
+// they are cut off. A bad record with a good one after it is corruption of
+// acknowledged updates and fails the open with an IOException instead.
+// Queries see an update once it is applied, which may be before it is
+// durable.
+public class DurableIntervalTree implements AutoCloseable {
+
+    static final byte INSERT = 1;
+    static final byte DELETE = 2;
+    static final int PAYLOAD = 9;
+    static final int RECORD = PAYLOAD + 4;
+
+    public static final long DEFAULT_WINDOW_NANOS = 1_000_000;
+    public static final int DEFAULT_WINDOW_BYTES = 64 << 10;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private final Path directory;
+    private final ConcurrentIntervalTree tree;
+    private final long windowNanos;
+    private final int windowBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition windowFull = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+
+    private FileChannel log;
+    private long generation;
+
+    // Records not yet handed to a commit, and the buffer swapped in for them
+    // when one takes them
+    private ByteBuffer pending, spare;
+
+    // How many records were appended, are covered by the commit in flight,
+    // and were made durable, in total
+    private long appended, writing, durable;
+
+    // A writer is holding the next group open
+    private boolean leading;
+
+    // A commit is writing and forcing the log outside the lock
+    private boolean flushing;
+
+    // close() has begun; no further updates are taken
+    private boolean closing;
+
+    // Set once a write or force failed; the log can no longer be trusted
+    private IOException failure;
+
+    // Checksums the records appended under the lock
+    private final CRC32C checksum = new CRC32C();
+
+    private DurableIntervalTree(Path directory, ConcurrentIntervalTree tree, FileChannel log, long generation,
+            long windowNanos, int windowBytes) {
+        this.directory = directory;
+        this.tree = tree;
+        this.log = log;
+        this.generation = generation;
+        this.windowNanos = windowNanos;
+        this.windowBytes = windowBytes;
+        this.pending = ByteBuffer.allocate(Math.max(windowBytes, RECORD) + RECORD).order(ByteOrder.LITTLE_ENDIAN);
+        this.spare = ByteBuffer.allocate(pending.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static DurableIntervalTree open(Path directory) throws IOException {
+        return open(directory, false, DEFAULT_WINDOW_NANOS, DEFAULT_WINDOW_BYTES);
+    }
+
+    // Opens or creates the tree in directory. allowDuplicates must match the
+    // mode the tree was created with.
+    public static DurableIntervalTree open(Path directory, boolean allowDuplicates, long windowNanos,
+            int windowBytes) throws IOException {
+        if (windowNanos < 0 || windowBytes < 0) throw new IllegalArgumentException("Negative commit window");
+        Files.createDirectories(directory);
+        long generation = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "snapshot-*")) {
+            for (Path file : files) generation = Math.max(generation, generationOf(file, "snapshot-"));
+        }
+        RedBlackIntervalTree tree = generation == 0
+                ? new RedBlackIntervalTree(allowDuplicates)
+                : RedBlackIntervalTree.readSnapshot(snapshot(directory, generation));
+        if (tree.allowsDuplicates() != allowDuplicates) {
+            throw new IOException("Duplicate mode does not match the snapshot in " + directory);
+        }
+
+        FileChannel log = FileChannel.open(wal(directory, generation), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            replay(log, tree, wal(directory, generation));
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        MappedIntervalIndex.syncDirectory(directory);
+        deleteStale(directory, generation);
+        return new DurableIntervalTree(directory, new ConcurrentIntervalTree(tree), log, generation,
+                windowNanos, windowBytes);
+    }
+
+    // Applies the log's records in order and truncates the bad tail after
+    // the last good one, leaving the channel positioned for appends. A good
+    // record after a bad one means the log is corrupt, not torn.
+    private static void replay(FileChannel log, RedBlackIntervalTree tree, Path file) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD << 16).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        long offset = 0, valid = -1;
+        log.position(0);
+        while (true) {
+            int read = log.read(chunk);
+            chunk.flip();
+            while (chunk.remaining() >= RECORD) {
+                int at = chunk.position();
+                byte op = chunk.get();
+                int start = chunk.getInt(), end = chunk.getInt(), sum = chunk.getInt();
+                crc.reset();
+                crc.update(chunk.array(), at, PAYLOAD);
+                if ((int) crc.getValue() != sum || op != INSERT && op != DELETE || start > end) {
+                    if (valid < 0) valid = offset;
+                } else if (valid >= 0) {
+                    throw new IOException("Corrupt write-ahead log record at byte " + valid + " of " + file);
+                } else if (op == INSERT) {
+                    tree.insert(start, end);
+                } else {
+                    tree.delete(start, end);
+                }
+                offset += RECORD;
+            }
+            chunk.compact();
+            if (read < 0) break;
+        }
+        if (valid < 0) valid = offset;
+        if (valid < log.size()) {
+            log.truncate(valid);
+            log.force(false);
+        }
+        log.position(valid);
+    }
+
+    // Removes the files of earlier generations and unfinished snapshots
+    private static void deleteStale(Path directory, long generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")
+                        || name.startsWith("snapshot-") && generationOf(file, "snapshot-") < generation
+                        || name.startsWith("wal-") && generationOf(file, "wal-") < generation) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static long generationOf(Path file, String prefix) {
+        try {
+            return Long.parseLong(file.getFileName().toString().substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Path snapshot(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation);
+    }
+
+    private static Path wal(Path directory, long generation) {
+        return directory.resolve("wal-" + generation);
+    }
+
+    public void insert(int start, int end) throws IOException {
+        update(INSERT, start, end, "Error inserting interval: ");
+    }
+
+    public void delete(int start, int end) throws IOException {
+        update(DELETE, start, end, "Error deleting interval: ");
+    }
+
+    // Appends and applies under the lock, so the log holds the updates in the
+    // order the tree saw them
+    private void update(byte op, int start, int end, String error) throws IOException {
+        if (start > end) {
+            System.err.println(error + INVALID_INTERVAL);
+            return;
+        }
+        lock.lock();
+        try {
+            ensureWritable();
+            if (pending.remaining() < RECORD) {
+                ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                pending = larger.put(pending.flip());
+            }
+            int at = pending.position();
+            pending.put(op).putInt(start).putInt(end);
+            checksum.reset();
+            checksum.update(pending.array(), at, PAYLOAD);
+            pending.putInt((int) checksum.getValue());
+            long record = ++appended;
+            if (op == INSERT) tree.insert(start, end);
+            else tree.delete(start, end);
+            if (pending.position() >= windowBytes) windowFull.signal();
+            awaitDurable(record);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The first writer to wait whose record no commit has taken yet leads the
+    // next group: it waits out the window, letting others append, then
+    // commits for all of them
+    private void awaitDurable(long record) throws IOException {
+        while (durable < record) {
+            if (failure != null) throw new IOException("Write-ahead log failed", failure);
+            if (leading || record <= writing) {
+                committed.awaitUninterruptibly();
+                continue;
+            }
+            leading = true;
+            try {
+                long deadline = System.nanoTime() + windowNanos;
+                long left;
+                while (pending.position() < windowBytes && (left = deadline - System.nanoTime()) > 0) {
+                    try {
+                        windowFull.awaitNanos(left);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            } finally {
+                leading = false;
+            }
+            commit();
+        }
+    }
+
+    // Takes the pending records, then writes and forces them with the lock
+    // released, one commit at a time. force(false) still syncs the file
+    // length, which appends change.
+    private void commit() throws IOException {
+        while (flushing) committed.awaitUninterruptibly();
+        if (failure != null) throw new IOException("Write-ahead log failed", failure);
+        if (durable == appended) return;
+        ByteBuffer batch = pending;
+        pending = spare;
+        writing = appended;
+        flushing = true;
+        FileChannel channel = log;
+        IOException error = null;
+        lock.unlock();
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) channel.write(batch);
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            flushing = false;
+            committed.signalAll();
+        }
+        spare = batch.clear();
+        if (error != null) {
+            failure = error;
+            throw error;
+        }
+        durable = writing;
+    }
+
+    // Writes the tree to a new snapshot and starts an empty log after it, so
+    // the next open replays nothing. Updates wait meanwhile. The snapshot
+    // holds every update applied so far, which makes the records still
+    // pending durable without writing them. The old generation is only
+    // deleted once the new files' entries are on disk.
+    public void checkpoint() throws IOException {
+        lock.lock();
+        try {
+            while (flushing) committed.awaitUninterruptibly();
+            ensureWritable();
+            long next = generation + 1;
+            tree.writeSnapshot(snapshot(directory, next));
+            FileChannel nextLog = FileChannel.open(wal(directory, next), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                MappedIntervalIndex.syncDirectory(directory);
+            } catch (IOException e) {
+                nextLog.close();
+                throw e;
+            }
+            log.close();
+            log = nextLog;
+            generation = next;
+            pending.clear();
+            writing = durable = appended;
+            committed.signalAll();
+            deleteStale(directory, generation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Commits what is pending and closes the log
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (log == null || closing) return;
+            closing = true;
+            try {
+                if (failure == null) commit();
+            } finally {
+                while (flushing) committed.awaitUninterruptibly();
+                log.close();
+                log = null;
+                committed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        if (log == null || closing) throw new IllegalStateException("Interval tree is closed");
+        if (failure != null) throw new IOException("Write-ahead log failed", failure);
+    }
+
+    public int size() {
+        return tree.size();
+    }
+
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        return tree.findOverlapping(start, end);
+    }
+
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        return tree.findOverlapping(start, end, consumer);
+    }
+
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return tree.findContaining(point);
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return tree.findContaining(point, consumer);
+    }
+}
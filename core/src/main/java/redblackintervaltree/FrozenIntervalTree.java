@@ -0,0 +1,90 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-only copy of a RedBlackIntervalTree, made by freeze(), with its nodes
+// rebuilt as a complete binary search tree in Eytzinger (breadth-first)
+// order: node k has children 2k and 2k + 1, counting from 1. A descent reads
+// max[] front to back, so the top four levels share one cache line and the
+// next levels sit in neighbouring ones, instead of wherever insertion left
+// each node. The queries find the same intervals as the tree did, in key
+// order, and walk in order without a stack by climbing from child to
+// parent.
+public final class FrozenIntervalTree {
+
+    // Largest size whose child indexes 2k + 1 still fit an int
+    static final int MAX_SIZE = 1 << 30;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private final int[] starts, ends, max;
+    private final int n;
+
+    // Lays out the n intervals, sorted in key order
+    FrozenIntervalTree(int[] s, int[] e, int n) {
+        if (n >= MAX_SIZE) throw new IllegalArgumentException("Too many intervals to freeze: " + n);
+        this.n = n;
+        starts = new int[n + 1];
+        ends = new int[n + 1];
+        max = new int[n + 1];
+        place(s, e, 0, 1);
+        for (int k = n; k >= 1; k--) {
+            int m = ends[k];
+            if (2 * k <= n) m = Math.max(m, max[2 * k]);
+            if (2 * k + 1 <= n) m = Math.max(m, max[2 * k + 1]);
+            max[k] = m;
+        }
+    }
+
+    // In-order fill of the subtree at k from sorted index i, returns the
+    // next sorted index
+    private int place(int[] s, int[] e, int i, int k) {
+        if (k > n) return i;
+        i = place(s, e, i, 2 * k);
+        starts[k] = s[i];
+        ends[k] = e[i++];
+        return place(s, e, i, 2 * k + 1);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    // Find Overlapping Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    // Find Overlapping Intervals without allocating, returns false if the
+    // consumer stopped the query. Goes left while a subtree reaches start;
+    // at an empty or pruned subtree it climbs past right children to the
+    // parent of a left child, which is the next node in order, then goes
+    // into that node's right subtree.
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        int k = 1;
+        while (true) {
+            while (k <= n && max[k] >= start) k = 2 * k;
+            k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+            if (k == 0) return true;
+            if (starts[k] > end) return true;
+            if (ends[k] >= start && !consumer.accept(starts[k], ends[k])) return false;
+            k = 2 * k + 1;
+        }
+    }
+
+    // Find All Contained Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return findOverlapping(point, point);
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findOverlapping(point, point, consumer);
+    }
+}
@@ -0,0 +1,99 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Immutable interval tree with no pointers at all: the intervals sit in key
+// order in flat start/end arrays, and the tree over them is implicit, the
+// range [lo, hi) having its root at (lo + hi) >>> 1. max holds the largest
+// end of each such range at its root. Queries walk it in key order with an
+// explicit stack of pending roots and scan small ranges linearly. Built
+// once, it is safe to query from any number of threads.
+public final class ImplicitIntervalTree {
+
+    // Ranges this short are scanned rather than split
+    private static final int SCAN = 16;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private final int[] starts, ends, max;
+    private final int n;
+
+    private ImplicitIntervalTree(int[] starts, int[] ends, int n) {
+        this.starts = starts;
+        this.ends = ends;
+        this.n = n;
+        this.max = new int[n];
+        fillMax(ends, max, 0, n);
+    }
+
+    // Snapshot of the tree's current contents
+    public static ImplicitIntervalTree from(RedBlackIntervalTree tree) {
+        int n = tree.size();
+        int[] s = new int[n];
+        int[] e = new int[n];
+        tree.copyTo(s, e);
+        return new ImplicitIntervalTree(s, e, n);
+    }
+
+    // Max end of the range [lo, hi), stored at its root; returns it
+    static int fillMax(int[] ends, int[] max, int lo, int hi) {
+        if (lo >= hi) return Integer.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        max[mid] = Math.max(ends[mid], Math.max(fillMax(ends, max, lo, mid), fillMax(ends, max, mid + 1, hi)));
+        return max[mid];
+    }
+
+    public int size() {
+        return n;
+    }
+
+    // Find Overlapping Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    // Find Overlapping Intervals, returns false if the consumer stopped the
+    // query. The stack holds the roots whose left range is being walked; the
+    // right range of each ends at the root below it, or at n.
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        int[] stack = new int[32];
+        int top = 0, lo = 0, hi = n;
+        while (true) {
+            while (hi - lo > SCAN) {
+                int mid = (lo + hi) >>> 1;
+                if (max[mid] < start) {
+                    hi = lo;
+                    break;
+                }
+                stack[top++] = mid;
+                hi = mid;
+            }
+            for (int i = lo; i < hi; i++) {
+                if (starts[i] > end) return true;
+                if (ends[i] >= start && !consumer.accept(starts[i], ends[i])) return false;
+            }
+            if (top == 0) return true;
+            int mid = stack[--top];
+            if (starts[mid] > end) return true;
+            if (ends[mid] >= start && !consumer.accept(starts[mid], ends[mid])) return false;
+            lo = mid + 1;
+            hi = top == 0 ? n : stack[top - 1];
+        }
+    }
+
+    // Find All Contained Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return findOverlapping(point, point);
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findOverlapping(point, point, consumer);
+    }
+}
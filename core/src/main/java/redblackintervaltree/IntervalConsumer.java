@@ -0,0 +1,8 @@
+package redblackintervaltree;
+
+// Receives query hits as primitive (start, end) pairs. Returning false stops
+// the query early.
+@FunctionalInterface
+public interface IntervalConsumer {
+    boolean accept(int start, int end);
+}
@@ -0,0 +1,42 @@
+package redblackintervaltree;
+
+// Hits of a batch of queries in compressed sparse row form: the hits of query
+// i are the (start, end) pairs at indexes offsets[i] until offsets[i + 1] of
+// the starts and ends arrays. The arrays are shared, not copied.
+public final class IntervalHits {
+
+    private final int[] offsets;
+    private final int[] starts, ends;
+
+    IntervalHits(int[] offsets, int[] starts, int[] ends) {
+        this.offsets = offsets;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    // Number of queries in the batch
+    public int queries() {
+        return offsets.length - 1;
+    }
+
+    // Total number of hits over all queries
+    public int size() {
+        return offsets[offsets.length - 1];
+    }
+
+    public int count(int query) {
+        return offsets[query + 1] - offsets[query];
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getStarts() {
+        return starts;
+    }
+
+    public int[] getEnds() {
+        return ends;
+    }
+}
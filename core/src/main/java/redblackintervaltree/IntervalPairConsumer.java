@@ -0,0 +1,9 @@
+package redblackintervaltree;
+
+// Receives the pairs found by an overlap join as primitive (start, end) pairs,
+// the interval of the tree the join was called on first. Returning false stops
+// the join early.
+@FunctionalInterface
+public interface IntervalPairConsumer {
+    boolean accept(int start, int end, int otherStart, int otherEnd);
+}
@@ -0,0 +1,8 @@
+package redblackintervaltree;
+
+// Receives query hits of a RedBlackIntervalMap as the primitive (start, end)
+// pair together with its value. Returning false stops the query early.
+@FunctionalInterface
+public interface IntervalValueConsumer<V> {
+    boolean accept(int start, int end, V value);
+}
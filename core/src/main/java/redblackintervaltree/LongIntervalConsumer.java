@@ -0,0 +1,8 @@
+package redblackintervaltree;
+
+// Receives query hits of a LongIntervalTree as primitive (start, end) pairs.
+// Returning false stops the query early.
+@FunctionalInterface
+public interface LongIntervalConsumer {
+    boolean accept(long start, long end);
+}
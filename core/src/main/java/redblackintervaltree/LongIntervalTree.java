@@ -0,0 +1,283 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// RedBlackIntervalTree over 64-bit keys, for timestamps and coordinates past
+// 2^31. Bounds are primitive longs held directly in the node and keys are
+// ordered with Long.compare, so keys far apart cannot overflow.
+public class LongIntervalTree {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private Node root;
+
+    public static class Interval {
+        final long start, end;
+
+        Interval(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + "]";
+        }
+    }
+
+    private static class Node {
+        long start, end;
+        long max;
+        Node left, right;
+        boolean color;
+        int count;
+
+        Node(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.color = RED;
+            this.max = end;
+            this.count = 1;
+        }
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    // Helper methods
+    private boolean isRed(Node x) {
+        if (x == null) return false;
+        return x.color == RED;
+    }
+
+    private void flipColors(Node h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    private Node rotateLeft(Node h) {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    private Node rotateRight(Node h) {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    private long max(Node x) {
+        if (x == null) return Long.MIN_VALUE;
+        return x.max;
+    }
+
+    private int size(Node x) {
+        if (x == null) return 0;
+        return x.count;
+    }
+
+    // Insert Interval
+    public void insert(long start, long end) {
+        if (start > end) {
+            System.err.println("Error inserting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        root = insert(root, start, end);
+        root.color = BLACK;
+    }
+
+    private Node insert(Node h, long start, long end) {
+        if (h == null) return new Node(start, end);
+
+        int cmp = Long.compare(start, h.start);
+        if (cmp < 0) h.left = insert(h.left, start, end);
+        else if (cmp > 0) h.right = insert(h.right, start, end);
+        else if (end > h.end) h.end = end;
+
+        if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+        return h;
+    }
+
+    // Delete Interval
+    public void delete(long start, long end) {
+        if (start > end) {
+            System.err.println("Error deleting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        if (!contains(start, end)) return;
+        if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+        root = delete(root, start, end);
+        if (root != null) root.color = BLACK;
+    }
+
+    public boolean contains(long start, long end) {
+        Node x = root;
+        while (x != null) {
+            int cmp = Long.compare(start, x.start);
+            if (cmp < 0) x = x.left;
+            else if (cmp > 0) x = x.right;
+            else return end == x.end;
+        }
+        return false;
+    }
+
+    private boolean matches(Node h, long start, long end) {
+        return start == h.start && end == h.end;
+    }
+
+    private Node delete(Node h, long start, long end) {
+        if (Long.compare(start, h.start) < 0) {
+            if (!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            h.left = delete(h.left, start, end);
+        } else {
+            if (isRed(h.left))
+                h = rotateRight(h);
+            if (matches(h, start, end) && h.right == null)
+                return null;
+            if (!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+            if (matches(h, start, end)) {
+                Node x = min(h.right);
+                h.start = x.start;
+                h.end = x.end;
+                h.right = deleteMin(h.right);
+            } else {
+                h.right = delete(h.right, start, end);
+            }
+        }
+        return balance(h);
+    }
+
+    private Node moveRedLeft(Node h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node moveRedRight(Node h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node min(Node x) {
+        if (x.left == null) return x;
+        return min(x.left);
+    }
+
+    private Node deleteMin(Node h) {
+        if (h.left == null) return null;
+        if (!isRed(h.left) && !isRed(h.left.left))
+            h = moveRedLeft(h);
+        h.left = deleteMin(h.left);
+        return balance(h);
+    }
+
+    private Node balance(Node h) {
+        if (isRed(h.right)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+        return h;
+    }
+
+    // Find Overlapping Intervals
+    public List<Interval> findOverlapping(long start, long end) {
+        List<Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new Interval(s, e)));
+        return result;
+    }
+
+    public boolean findOverlapping(long start, long end, LongIntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        return findOverlapping(root, start, end, consumer);
+    }
+
+    private boolean findOverlapping(Node x, long start, long end, LongIntervalConsumer consumer) {
+        if (x == null) return true;
+        if (x.start <= end && start <= x.end && !consumer.accept(x.start, x.end)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= start
+                && !findOverlapping(x.left, start, end, consumer)) {
+            return false;
+        }
+        if (x.right != null && x.start <= end) {
+            return findOverlapping(x.right, start, end, consumer);
+        }
+        return true;
+    }
+
+    // Find All Contained Intervals
+    public List<Interval> findContaining(long point) {
+        List<Interval> result = new ArrayList<>();
+        findContaining(point, (s, e) -> result.add(new Interval(s, e)));
+        return result;
+    }
+
+    public boolean findContaining(long point, LongIntervalConsumer consumer) {
+        return findContaining(root, point, consumer);
+    }
+
+    private boolean findContaining(Node x, long point, LongIntervalConsumer consumer) {
+        if (x == null) return true;
+        if (x.start <= point && point <= x.end && !consumer.accept(x.start, x.end)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= point
+                && !findContaining(x.left, point, consumer)) {
+            return false;
+        }
+        if (x.right != null && x.start <= point) {
+            return findContaining(x.right, point, consumer);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,230 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Write-optimized interval index in the style of an LSM tree. Updates go to
+// a small in-memory RedBlackIntervalTree, the memtable, which stays cache
+// resident; once it holds memtableSize entries it is flushed to an immutable
+// SortedRun. A background thread merges runs so that each one outweighs all
+// newer runs together, which leaves about log(n / memtableSize) of them.
+//
+// The index is a set of distinct intervals: insert adds [start, end] unless
+// it is present and delete removes exactly that interval. A delete leaves a
+// tombstone that hides older copies until a merge reaches the oldest run.
+// Queries visit the memtable and every run, skipping hits that a newer
+// layer holds as well.
+//
+// Like RedBlackIntervalTree it is meant for one thread at a time; only the
+// merges run on their own thread.
+public class LsmIntervalTree implements AutoCloseable {
+
+    public static final int DEFAULT_MEMTABLE_SIZE = 1 << 16;
+
+    // Size ratio kept between a run and all newer runs together
+    private static final int MERGE_RATIO = 2;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private final int memtableSize;
+
+    // Memtable: an interval is either in puts or in tombstones, never both
+    private RedBlackIntervalTree puts = new RedBlackIntervalTree(true);
+    private RedBlackIntervalTree tombstones = new RedBlackIntervalTree(true);
+
+    // Oldest first. Replaced as a whole under the monitor, so a query works
+    // on a consistent array even while a merge lands.
+    private volatile SortedRun[] runs = new SortedRun[0];
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "interval-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+
+    public LsmIntervalTree() {
+        this(DEFAULT_MEMTABLE_SIZE);
+    }
+
+    public LsmIntervalTree(int memtableSize) {
+        if (memtableSize < 1) throw new IllegalArgumentException("Memtable size must be positive: " + memtableSize);
+        this.memtableSize = memtableSize;
+    }
+
+    public void insert(int start, int end) {
+        if (start > end) {
+            System.err.println("Error inserting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        tombstones.delete(start, end);
+        if (!puts.contains(start, end)) puts.insert(start, end);
+        flushIfFull();
+    }
+
+    public void delete(int start, int end) {
+        if (start > end) {
+            System.err.println("Error deleting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        puts.delete(start, end);
+        if (!tombstones.contains(start, end)) tombstones.insert(start, end);
+        flushIfFull();
+    }
+
+    private void flushIfFull() {
+        if (puts.size() + tombstones.size() >= memtableSize) flush();
+    }
+
+    // Moves the memtable into a new run and queues a merge
+    public void flush() {
+        int p = puts.size(), t = tombstones.size();
+        if (p + t == 0) return;
+        int[] ps = new int[p], pe = new int[p], ts = new int[t], te = new int[t];
+        puts.copyTo(ps, pe);
+        tombstones.copyTo(ts, te);
+        int[] s = new int[p + t];
+        int[] e = new int[p + t];
+        boolean[] dead = new boolean[p + t];
+        for (int i = 0, j = 0, n = 0; n < p + t; n++) {
+            dead[n] = i == p || j < t && SortedRun.compare(ts[j], te[j], ps[i], pe[i]) < 0;
+            s[n] = dead[n] ? ts[j] : ps[i];
+            e[n] = dead[n] ? te[j++] : pe[i++];
+        }
+        SortedRun run = new SortedRun(s, e, dead, p + t);
+        synchronized (this) {
+            SortedRun[] current = runs;
+            SortedRun[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = run;
+            runs = next;
+        }
+        puts = new RedBlackIntervalTree(true);
+        tombstones = new RedBlackIntervalTree(true);
+        queueCompaction();
+    }
+
+    // Hands a merge to the compactor unless one is queued already. Once the
+    // tree is closed the new run just stays unmerged.
+    private void queueCompaction() {
+        if (compactor.isShutdown() || !compactionQueued.compareAndSet(false, true)) return;
+        try {
+            compactor.execute(this::compact);
+        } catch (RejectedExecutionException e) {
+            compactionQueued.set(false);
+        }
+    }
+
+    // Merges every run from the oldest one holding at most MERGE_RATIO times
+    // the entries of all newer runs, until each run outweighs the newer ones
+    // together
+    private void compact() {
+        compactionQueued.set(false);
+        try {
+            while (true) {
+                SortedRun[] current = runs;
+                int k = current.length, from = k;
+                long newer = 0;
+                for (int i = k - 1; i >= 0; i--) {
+                    if (current[i].size <= MERGE_RATIO * newer) from = i;
+                    newer += current[i].size;
+                }
+                if (from == k) return;
+
+                boolean oldest = from == 0;
+                SortedRun merged = current[from];
+                for (int i = from + 1; i < k; i++) merged = SortedRun.merge(merged, current[i], oldest);
+                replace(current[from], k - from, merged);
+            }
+        } catch (RuntimeException | OutOfMemoryError e) {
+            System.err.println("Error compacting runs: " + e);
+        }
+    }
+
+    // Swaps the count runs starting at first for merged. Flushes only ever
+    // append, so those runs are still adjacent.
+    private synchronized void replace(SortedRun first, int count, SortedRun merged) {
+        SortedRun[] current = runs;
+        int at = 0;
+        while (current[at] != first) at++;
+        List<SortedRun> next = new ArrayList<>(current.length - count + 1);
+        next.addAll(Arrays.asList(current).subList(0, at));
+        if (merged.size > 0) next.add(merged);
+        next.addAll(Arrays.asList(current).subList(at + count, current.length));
+        runs = next.toArray(new SortedRun[0]);
+    }
+
+    // Number of runs currently on the heap
+    public int runCount() {
+        return runs.length;
+    }
+
+    // Stops the merge thread once the queued merge is done; queries and
+    // updates keep working, but later flushes are no longer merged
+    @Override
+    public void close() {
+        compactor.shutdown();
+    }
+
+    // Waits for queued merges, mainly for benchmarks and tests
+    void awaitCompaction() throws InterruptedException {
+        try {
+            compactor.submit(() -> { }).get();
+        } catch (RejectedExecutionException e) {
+            compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Find Overlapping Intervals; newest layer first, each in key order
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    // Find Overlapping Intervals without allocating the hits, returns false
+    // if the consumer stopped the query
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        if (!puts.findOverlapping(start, end, consumer)) return false;
+        SortedRun[] layers = runs;
+        for (int i = layers.length - 1; i >= 0; i--) {
+            int run = i;
+            if (!layers[i].findOverlapping(start, end,
+                    (s, e) -> shadowed(layers, run, s, e) || consumer.accept(s, e))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether a layer newer than run holds [start, end]
+    private boolean shadowed(SortedRun[] layers, int run, int start, int end) {
+        if (puts.contains(start, end) || tombstones.contains(start, end)) return true;
+        for (int i = run + 1; i < layers.length; i++) {
+            if (layers[i].has(start, end)) return true;
+        }
+        return false;
+    }
+
+    // Find All Contained Intervals
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return findOverlapping(point, point);
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findOverlapping(point, point, consumer);
+    }
+}
@@ -0,0 +1,191 @@
+package redblackintervaltree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-only interval index queried in place over a memory-mapped snapshot
+// file, so opening it costs a header check whatever the size.
+//
+// File format, little-endian ints:
+//   header  magic "RBIT", version, flags (1 = duplicates kept), count n
+//   starts  n starts in key order
+//   ends    the n matching ends
+//   max     the max ends of the implicit tree over key order, laid out as
+//           in ImplicitIntervalTree
+public final class MappedIntervalIndex implements AutoCloseable {
+
+    static final int MAGIC = 0x52424954;
+    static final int VERSION = 1;
+    static final int HEADER = 16;
+
+    private static final int FLAG_DUPLICATES = 1;
+
+    // Each section is one mapping, so the count is bounded by the largest
+    // buffer
+    static final int MAX_SIZE = Integer.MAX_VALUE / Integer.BYTES;
+
+    // Windows cannot open a directory as a channel to force it
+    private static final boolean WINDOWS = System.getProperty("os.name").startsWith("Windows");
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private IntBuffer starts, ends, max;
+    private final int n;
+    private final boolean allowDuplicates;
+
+    private MappedIntervalIndex(IntBuffer starts, IntBuffer ends, IntBuffer max, int n, boolean allowDuplicates) {
+        this.starts = starts;
+        this.ends = ends;
+        this.max = max;
+        this.n = n;
+        this.allowDuplicates = allowDuplicates;
+    }
+
+    // Writes the first n intervals, sorted in key order, as a snapshot. The
+    // file is written beside path and moved over it once forced to disk, so
+    // a crash leaves either the old snapshot or the new one. The rename is
+    // durable once this returns.
+    static void write(Path path, int[] s, int[] e, int n, boolean allowDuplicates) throws IOException {
+        if (n > MAX_SIZE) throw new IllegalArgumentException("Too many intervals for a snapshot: " + n);
+        int[] m = new int[n];
+        ImplicitIntervalTree.fillMax(e, m, 0, n);
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer chunk = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            chunk.putInt(MAGIC).putInt(VERSION).putInt(allowDuplicates ? FLAG_DUPLICATES : 0).putInt(n);
+            for (int[] section : new int[][] { s, e, m }) {
+                for (int i = 0; i < n; ) {
+                    if (!chunk.hasRemaining()) drain(channel, chunk);
+                    int length = Math.min(n - i, chunk.remaining() / Integer.BYTES);
+                    chunk.asIntBuffer().put(section, i, length);
+                    chunk.position(chunk.position() + length * Integer.BYTES);
+                    i += length;
+                }
+            }
+            drain(channel, chunk);
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(path.toAbsolutePath().getParent());
+    }
+
+    // Forces the entries of a directory, so files created, renamed or
+    // removed in it stay that way after a crash
+    static void syncDirectory(Path directory) throws IOException {
+        if (WINDOWS) return;
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) channel.write(chunk);
+        chunk.clear();
+    }
+
+    // Maps a snapshot read-only. The mapping outlives the channel and is
+    // released once the index is closed and unreachable.
+    public static MappedIntervalIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC) {
+                throw new IOException("Not an interval snapshot: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            int flags = header.getInt();
+            int n = header.getInt();
+            long section = (long) n * Integer.BYTES;
+            if (n < 0 || n > MAX_SIZE || channel.size() != HEADER + 3 * section) {
+                throw new IOException("Truncated or corrupt snapshot: " + path);
+            }
+            return new MappedIntervalIndex(map(channel, HEADER, section), map(channel, HEADER + section, section),
+                    map(channel, HEADER + 2 * section, section), n, (flags & FLAG_DUPLICATES) != 0);
+        }
+    }
+
+    private static IntBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public boolean allowsDuplicates() {
+        return allowDuplicates;
+    }
+
+    // Copies the intervals in key order into s and e
+    void copyTo(int[] s, int[] e) {
+        ensureOpen();
+        starts.get(0, s, 0, n);
+        ends.get(0, e, 0, n);
+    }
+
+    @Override
+    public void close() {
+        starts = ends = max = null;
+    }
+
+    private void ensureOpen() {
+        if (starts == null) throw new IllegalStateException("Interval index is closed");
+    }
+
+    // Find Overlapping Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    // Find Overlapping Intervals without allocating, returns false if the
+    // consumer stopped the query
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        ensureOpen();
+        return findOverlapping(0, n, start, end, consumer);
+    }
+
+    // The range [lo, hi): nothing in it reaches start once its max is below,
+    // and nothing right of a root starting past end can overlap
+    private boolean findOverlapping(int lo, int hi, int start, int end, IntervalConsumer consumer) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (max.get(mid) < start) return true;
+            if (!findOverlapping(lo, mid, start, end, consumer)) return false;
+            int s = starts.get(mid);
+            if (s > end) return true;
+            int e = ends.get(mid);
+            if (e >= start && !consumer.accept(s, e)) return false;
+            lo = mid + 1;
+        }
+        return true;
+    }
+
+    // Find All Contained Intervals, in key order
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return findOverlapping(point, point);
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findOverlapping(point, point, consumer);
+    }
+}
@@ -0,0 +1,422 @@
+package redblackintervaltree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// RedBlackIntervalTree with its nodes kept off-heap. Every node is a fixed
+// 28-byte record and links are record indexes, so the Java heap holds only
+// this object and its chunk table whatever the size. Record x lives in
+// chunk x >>> CHUNK_SHIFT, a direct buffer of CHUNK records, which lets the
+// tree address up to Integer.MAX_VALUE records (about 56 GiB) although one
+// buffer stops at 2 GiB. A tree smaller than one chunk grows its only
+// buffer by copying; past that it adds chunks and never moves a record.
+// Freed records are chained through LEFT and reused first.
+public class OffHeapIntervalTree implements AutoCloseable {
+
+    private static final int RED = 1;
+    private static final int BLACK = 0;
+
+    private static final int NIL = -1;
+
+    // Record layout
+    private static final int START = 0;
+    private static final int END = 4;
+    private static final int MAX = 8;
+    private static final int COUNT = 12;
+    private static final int LEFT = 16;
+    private static final int RIGHT = 20;
+    private static final int COLOR = 24;
+    static final int RECORD = 28;
+
+    // Records per chunk buffer, 28 MiB each
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK - 1;
+
+    // Largest record count; record indexes are non-negative ints
+    static final int MAX_CAPACITY = Integer.MAX_VALUE;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    // Every chunk but the last holds CHUNK records. Null once closed.
+    private ByteBuffer[] chunks;
+    private int capacity;
+    private int root = NIL;
+    private int free = NIL;
+    private int used;
+
+    public OffHeapIntervalTree() {
+        this(1024);
+    }
+
+    public OffHeapIntervalTree(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Negative capacity: " + capacity);
+        chunks = new ByteBuffer[] { allocate(Math.min(Math.max(capacity, 1), CHUNK)) };
+        this.capacity = chunks[0].capacity() / RECORD;
+        grow(capacity);
+    }
+
+    private static ByteBuffer allocate(int records) {
+        return ByteBuffer.allocateDirect(records * RECORD).order(ByteOrder.nativeOrder());
+    }
+
+    public int size() {
+        open();
+        return size(root);
+    }
+
+    // Number of records the chunks can hold
+    public int capacity() {
+        open();
+        return capacity;
+    }
+
+    // Adds room for at least the given number of records
+    public void ensureCapacity(int capacity) {
+        open();
+        grow(capacity);
+    }
+
+    // Drops the chunks above the high-water mark and shrinks the last one
+    // to fit. Freed records below the mark stay in place.
+    public void trimToSize() {
+        open();
+        int keep = Math.max(used, 1);
+        int last = (keep - 1) >>> CHUNK_SHIFT;
+        int tail = keep - (last << CHUNK_SHIFT);
+        if (last < chunks.length - 1) chunks = Arrays.copyOf(chunks, last + 1);
+        if (tail < chunks[last].capacity() / RECORD) chunks[last] = copy(chunks[last], tail);
+        capacity = keep;
+    }
+
+    // Widens the last chunk while it is short of CHUNK records, doubling it
+    // at least, then appends full chunks until capacity reaches target
+    private void grow(long target) {
+        if (target <= capacity) return;
+        if (target > MAX_CAPACITY) throw new IllegalArgumentException("Capacity too large: " + target);
+        int last = chunks.length - 1;
+        int records = chunks[last].capacity() / RECORD;
+        if (records < CHUNK) {
+            long needed = target - ((long) last << CHUNK_SHIFT);
+            int widened = (int) Math.min(CHUNK, Math.max(2L * records, needed));
+            chunks[last] = copy(chunks[last], widened);
+            capacity += widened - records;
+        }
+        while (capacity < target) {
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunks.length - 1] = allocate(CHUNK);
+            capacity += CHUNK;
+        }
+    }
+
+    // A buffer of the given number of records holding the leading records
+    // of chunk
+    private static ByteBuffer copy(ByteBuffer chunk, int records) {
+        ByteBuffer resized = allocate(records);
+        ByteBuffer old = chunk.duplicate();
+        old.position(0).limit(Math.min(records, old.capacity() / RECORD) * RECORD);
+        resized.put(old);
+        return resized;
+    }
+
+    // Drops the chunks; every method throws IllegalStateException from then
+    // on. Direct buffers have no explicit free, so their native memory goes
+    // back to the JVM when the collector reclaims them, not inside close().
+    @Override
+    public void close() {
+        chunks = null;
+        capacity = 0;
+        root = NIL;
+        free = NIL;
+        used = 0;
+    }
+
+    private void open() {
+        if (chunks == null) throw new IllegalStateException("Interval tree is closed");
+    }
+
+    // Record access
+    private int get(int x, int field) {
+        return chunks[x >>> CHUNK_SHIFT].getInt((x & CHUNK_MASK) * RECORD + field);
+    }
+
+    private void set(int x, int field, int value) {
+        chunks[x >>> CHUNK_SHIFT].putInt((x & CHUNK_MASK) * RECORD + field, value);
+    }
+
+    private int left(int x) {
+        return get(x, LEFT);
+    }
+
+    private int right(int x) {
+        return get(x, RIGHT);
+    }
+
+    // Record management
+    private int allocate(int s, int e) {
+        int x;
+        if (free != NIL) {
+            x = free;
+            free = left(x);
+        } else {
+            if (used == MAX_CAPACITY) throw new IllegalStateException("Off-heap tree is full");
+            grow(used + 1L);
+            x = used++;
+        }
+        set(x, START, s);
+        set(x, END, e);
+        set(x, MAX, e);
+        set(x, COUNT, 1);
+        set(x, LEFT, NIL);
+        set(x, RIGHT, NIL);
+        set(x, COLOR, RED);
+        return x;
+    }
+
+    private void release(int x) {
+        set(x, LEFT, free);
+        free = x;
+    }
+
+    // Helper methods
+    private boolean isRed(int x) {
+        if (x == NIL) return false;
+        return get(x, COLOR) == RED;
+    }
+
+    private void flipColors(int h) {
+        set(h, COLOR, 1 - get(h, COLOR));
+        set(left(h), COLOR, 1 - get(left(h), COLOR));
+        set(right(h), COLOR, 1 - get(right(h), COLOR));
+    }
+
+    private void update(int h) {
+        set(h, MAX, Math.max(get(h, END), Math.max(max(left(h)), max(right(h)))));
+        set(h, COUNT, 1 + size(left(h)) + size(right(h)));
+    }
+
+    private int rotateLeft(int h) {
+        int x = right(h);
+        set(h, RIGHT, left(x));
+        set(x, LEFT, h);
+        set(x, COLOR, get(h, COLOR));
+        set(h, COLOR, RED);
+        set(x, MAX, get(h, MAX));
+        set(x, COUNT, get(h, COUNT));
+        update(h);
+        return x;
+    }
+
+    private int rotateRight(int h) {
+        int x = left(h);
+        set(h, LEFT, right(x));
+        set(x, RIGHT, h);
+        set(x, COLOR, get(h, COLOR));
+        set(h, COLOR, RED);
+        set(x, MAX, get(h, MAX));
+        set(x, COUNT, get(h, COUNT));
+        update(h);
+        return x;
+    }
+
+    private int max(int x) {
+        if (x == NIL) return Integer.MIN_VALUE;
+        return get(x, MAX);
+    }
+
+    private int size(int x) {
+        if (x == NIL) return 0;
+        return get(x, COUNT);
+    }
+
+    // Insert Interval
+    public void insert(int start, int end) {
+        open();
+        if (start > end) {
+            System.err.println("Error inserting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        root = insert(root, start, end);
+        set(root, COLOR, BLACK);
+    }
+
+    private int insert(int h, int s, int e) {
+        if (h == NIL) return allocate(s, e);
+
+        int cmp = Integer.compare(s, get(h, START));
+        if (cmp < 0) set(h, LEFT, insert(left(h), s, e));
+        else if (cmp > 0) set(h, RIGHT, insert(right(h), s, e));
+        else if (e > get(h, END)) set(h, END, e);
+
+        if (isRed(right(h)) && !isRed(left(h))) h = rotateLeft(h);
+        if (isRed(left(h)) && isRed(left(left(h)))) h = rotateRight(h);
+        if (isRed(left(h)) && isRed(right(h))) flipColors(h);
+
+        update(h);
+        return h;
+    }
+
+    // Delete Interval
+    public void delete(int start, int end) {
+        open();
+        if (start > end) {
+            System.err.println("Error deleting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        if (!contains(start, end)) return;
+        if (!isRed(left(root)) && !isRed(right(root))) set(root, COLOR, RED);
+        root = delete(root, start, end);
+        if (root != NIL) set(root, COLOR, BLACK);
+    }
+
+    public boolean contains(int start, int end) {
+        open();
+        int x = root;
+        while (x != NIL) {
+            int cmp = Integer.compare(start, get(x, START));
+            if (cmp < 0) x = left(x);
+            else if (cmp > 0) x = right(x);
+            else return end == get(x, END);
+        }
+        return false;
+    }
+
+    private boolean matches(int h, int s, int e) {
+        return s == get(h, START) && e == get(h, END);
+    }
+
+    private int delete(int h, int s, int e) {
+        if (s < get(h, START)) {
+            if (!isRed(left(h)) && !isRed(left(left(h))))
+                h = moveRedLeft(h);
+            set(h, LEFT, delete(left(h), s, e));
+        } else {
+            if (isRed(left(h)))
+                h = rotateRight(h);
+            if (matches(h, s, e) && right(h) == NIL) {
+                release(h);
+                return NIL;
+            }
+            if (!isRed(right(h)) && !isRed(left(right(h))))
+                h = moveRedRight(h);
+            if (matches(h, s, e)) {
+                int x = min(right(h));
+                set(h, START, get(x, START));
+                set(h, END, get(x, END));
+                set(h, RIGHT, deleteMin(right(h)));
+            } else {
+                set(h, RIGHT, delete(right(h), s, e));
+            }
+        }
+        return balance(h);
+    }
+
+    private int moveRedLeft(int h) {
+        flipColors(h);
+        if (isRed(left(right(h)))) {
+            set(h, RIGHT, rotateRight(right(h)));
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private int moveRedRight(int h) {
+        flipColors(h);
+        if (isRed(left(left(h)))) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private int min(int x) {
+        while (left(x) != NIL) x = left(x);
+        return x;
+    }
+
+    private int deleteMin(int h) {
+        if (left(h) == NIL) {
+            release(h);
+            return NIL;
+        }
+        if (!isRed(left(h)) && !isRed(left(left(h))))
+            h = moveRedLeft(h);
+        set(h, LEFT, deleteMin(left(h)));
+        return balance(h);
+    }
+
+    private int balance(int h) {
+        if (isRed(right(h))) h = rotateLeft(h);
+        if (isRed(left(h)) && isRed(left(left(h)))) h = rotateRight(h);
+        if (isRed(left(h)) && isRed(right(h))) flipColors(h);
+
+        update(h);
+        return h;
+    }
+
+    // Find Overlapping Intervals
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        open();
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        return findOverlapping(root, start, end, consumer);
+    }
+
+    private boolean findOverlapping(int x, int s, int e, IntervalConsumer consumer) {
+        if (x == NIL) return true;
+        int xs = get(x, START), xe = get(x, END);
+        if (xs <= e && s <= xe && !consumer.accept(xs, xe)) {
+            return false;
+        }
+        int l = left(x);
+        if (l != NIL && get(l, MAX) >= s && !findOverlapping(l, s, e, consumer)) {
+            return false;
+        }
+        int r = right(x);
+        if (r != NIL && xs <= e) {
+            return findOverlapping(r, s, e, consumer);
+        }
+        return true;
+    }
+
+    // Find All Contained Intervals
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+        findContaining(point, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+        return result;
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        open();
+        return findContaining(root, point, consumer);
+    }
+
+    private boolean findContaining(int x, int point, IntervalConsumer consumer) {
+        if (x == NIL) return true;
+        int xs = get(x, START), xe = get(x, END);
+        if (xs <= point && point <= xe && !consumer.accept(xs, xe)) {
+            return false;
+        }
+        int l = left(x);
+        if (l != NIL && get(l, MAX) >= point && !findContaining(l, point, consumer)) {
+            return false;
+        }
+        int r = right(x);
+        if (r != NIL && xs <= point) {
+            return findContaining(r, point, consumer);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,305 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Persistent RedBlackIntervalTree: nodes are immutable, and insert/delete copy
+// the O(log n) path they touch, sharing every other subtree with the previous
+// version. The new root is published with a compare-and-set, so readers never
+// lock and a Snapshot keeps answering against the version it captured while
+// writers move on. Concurrent writers retry on a lost race.
+public class PersistentIntervalTree {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private final AtomicReference<Node> root = new AtomicReference<>();
+
+    // max and count are derived once from the children, which never change
+    private static final class Node {
+        final int start, end;
+        final int max;
+        final Node left, right;
+        final boolean color;
+        final int count;
+
+        Node(int start, int end, boolean color, Node left, Node right) {
+            this.start = start;
+            this.end = end;
+            this.color = color;
+            this.left = left;
+            this.right = right;
+            this.max = Math.max(end, Math.max(max(left), max(right)));
+            this.count = 1 + size(left) + size(right);
+        }
+
+        Node withColor(boolean color) {
+            return color == this.color ? this : new Node(start, end, color, left, right);
+        }
+
+        Node withLeft(Node left) {
+            return left == this.left ? this : new Node(start, end, color, left, right);
+        }
+
+        Node withRight(Node right) {
+            return right == this.right ? this : new Node(start, end, color, left, right);
+        }
+    }
+
+    // A fixed version of the tree; safe to query from any thread
+    public static final class Snapshot {
+        private final Node root;
+
+        private Snapshot(Node root) {
+            this.root = root;
+        }
+
+        public int size() {
+            return PersistentIntervalTree.size(root);
+        }
+
+        public boolean contains(int start, int end) {
+            return PersistentIntervalTree.contains(root, start, end);
+        }
+
+        // Find Overlapping Intervals
+        public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+            List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+            findOverlapping(start, end, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+            return result;
+        }
+
+        public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+            if (start > end) {
+                System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+                return true;
+            }
+            return PersistentIntervalTree.findOverlapping(root, start, end, consumer);
+        }
+
+        // Find All Contained Intervals
+        public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+            List<RedBlackIntervalTree.Interval> result = new ArrayList<>();
+            findContaining(point, (s, e) -> result.add(new RedBlackIntervalTree.Interval(s, e)));
+            return result;
+        }
+
+        public boolean findContaining(int point, IntervalConsumer consumer) {
+            return PersistentIntervalTree.findContaining(root, point, consumer);
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(root.get());
+    }
+
+    public int size() {
+        return size(root.get());
+    }
+
+    public boolean contains(int start, int end) {
+        return contains(root.get(), start, end);
+    }
+
+    // Helper methods
+    private static boolean isRed(Node x) {
+        if (x == null) return false;
+        return x.color == RED;
+    }
+
+    private static Node flipColors(Node h) {
+        return new Node(h.start, h.end, !h.color,
+                h.left.withColor(!h.left.color), h.right.withColor(!h.right.color));
+    }
+
+    private static Node rotateLeft(Node h) {
+        Node x = h.right;
+        return new Node(x.start, x.end, h.color,
+                new Node(h.start, h.end, RED, h.left, x.left), x.right);
+    }
+
+    private static Node rotateRight(Node h) {
+        Node x = h.left;
+        return new Node(x.start, x.end, h.color,
+                x.left, new Node(h.start, h.end, RED, x.right, h.right));
+    }
+
+    private static int max(Node x) {
+        if (x == null) return Integer.MIN_VALUE;
+        return x.max;
+    }
+
+    private static int size(Node x) {
+        if (x == null) return 0;
+        return x.count;
+    }
+
+    // Insert Interval; equal starts merge the way RedBlackIntervalTree does
+    public void insert(int start, int end) {
+        if (start > end) {
+            System.err.println("Error inserting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        while (true) {
+            Node current = root.get();
+            Node updated = insert(current, start, end).withColor(BLACK);
+            if (updated == current || root.compareAndSet(current, updated)) return;
+        }
+    }
+
+    private static Node insert(Node h, int start, int end) {
+        if (h == null) return new Node(start, end, RED, null, null);
+
+        int cmp = Integer.compare(start, h.start);
+        if (cmp < 0) h = h.withLeft(insert(h.left, start, end));
+        else if (cmp > 0) h = h.withRight(insert(h.right, start, end));
+        else if (end > h.end) h = new Node(h.start, end, h.color, h.left, h.right);
+        else return h;
+
+        if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) h = flipColors(h);
+        return h;
+    }
+
+    // Delete Interval
+    public void delete(int start, int end) {
+        if (start > end) {
+            System.err.println("Error deleting interval: " + INVALID_INTERVAL);
+            return;
+        }
+        while (true) {
+            Node current = root.get();
+            if (!contains(current, start, end)) return;
+            Node h = current;
+            if (!isRed(h.left) && !isRed(h.right)) h = h.withColor(RED);
+            h = delete(h, start, end);
+            if (h != null) h = h.withColor(BLACK);
+            if (root.compareAndSet(current, h)) return;
+        }
+    }
+
+    private static boolean contains(Node x, int start, int end) {
+        while (x != null) {
+            int cmp = Integer.compare(start, x.start);
+            if (cmp < 0) x = x.left;
+            else if (cmp > 0) x = x.right;
+            else return end == x.end;
+        }
+        return false;
+    }
+
+    // Starts are unique and the interval is known to be present, so the
+    // match survives the copies made by the rotations below
+    private static Node delete(Node h, int start, int end) {
+        if (Integer.compare(start, h.start) < 0) {
+            if (!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            h = h.withLeft(delete(h.left, start, end));
+        } else {
+            if (isRed(h.left))
+                h = rotateRight(h);
+            if (start == h.start && h.right == null)
+                return null;
+            if (!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+            if (start == h.start) {
+                Node x = min(h.right);
+                h = new Node(x.start, x.end, h.color, h.left, deleteMin(h.right));
+            } else {
+                h = h.withRight(delete(h.right, start, end));
+            }
+        }
+        return balance(h);
+    }
+
+    private static Node moveRedLeft(Node h) {
+        h = flipColors(h);
+        if (isRed(h.right.left)) {
+            h = h.withRight(rotateRight(h.right));
+            h = rotateLeft(h);
+            h = flipColors(h);
+        }
+        return h;
+    }
+
+    private static Node moveRedRight(Node h) {
+        h = flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            h = flipColors(h);
+        }
+        return h;
+    }
+
+    private static Node min(Node x) {
+        while (x.left != null) x = x.left;
+        return x;
+    }
+
+    private static Node deleteMin(Node h) {
+        if (h.left == null) return null;
+        if (!isRed(h.left) && !isRed(h.left.left))
+            h = moveRedLeft(h);
+        h = h.withLeft(deleteMin(h.left));
+        return balance(h);
+    }
+
+    private static Node balance(Node h) {
+        if (isRed(h.right)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) h = flipColors(h);
+        return h;
+    }
+
+    // Find Overlapping Intervals in the current version
+    public List<RedBlackIntervalTree.Interval> findOverlapping(int start, int end) {
+        return snapshot().findOverlapping(start, end);
+    }
+
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        return snapshot().findOverlapping(start, end, consumer);
+    }
+
+    private static boolean findOverlapping(Node x, int start, int end, IntervalConsumer consumer) {
+        if (x == null) return true;
+        if (x.start <= end && start <= x.end && !consumer.accept(x.start, x.end)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= start
+                && !findOverlapping(x.left, start, end, consumer)) {
+            return false;
+        }
+        if (x.right != null && x.start <= end) {
+            return findOverlapping(x.right, start, end, consumer);
+        }
+        return true;
+    }
+
+    // Find All Contained Intervals in the current version
+    public List<RedBlackIntervalTree.Interval> findContaining(int point) {
+        return snapshot().findContaining(point);
+    }
+
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return snapshot().findContaining(point, consumer);
+    }
+
+    private static boolean findContaining(Node x, int point, IntervalConsumer consumer) {
+        if (x == null) return true;
+        if (x.start <= point && point <= x.end && !consumer.accept(x.start, x.end)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= point
+                && !findContaining(x.left, point, consumer)) {
+            return false;
+        }
+        if (x.right != null && x.start <= point) {
+            return findContaining(x.right, point, consumer);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,318 @@
+package redblackintervaltree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// RedBlackIntervalTree with a value attached to every interval. Keys are the
+// primitive (start, end) pair, ordered by start and then end, so intervals
+// sharing a start are kept apart; the value sits in the node next to its
+// bounds and queries hand it to the consumer without a second lookup.
+public class RedBlackIntervalMap<V> {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private Node<V> root;
+
+    public static class Entry<V> {
+        final int start, end;
+        final V value;
+
+        Entry(int start, int end, V value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + "]=" + value;
+        }
+    }
+
+    private static class Node<V> {
+        int start, end;
+        V value;
+        int max;
+        Node<V> left, right;
+        boolean color;
+        int count;
+
+        Node(int start, int end, V value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+            this.color = RED;
+            this.max = end;
+            this.count = 1;
+        }
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    // Helper methods
+    private boolean isRed(Node<V> x) {
+        if (x == null) return false;
+        return x.color == RED;
+    }
+
+    private void flipColors(Node<V> h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    private Node<V> rotateLeft(Node<V> h) {
+        Node<V> x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    private Node<V> rotateRight(Node<V> h) {
+        Node<V> x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    private int max(Node<V> x) {
+        if (x == null) return Integer.MIN_VALUE;
+        return x.max;
+    }
+
+    private int size(Node<V> x) {
+        if (x == null) return 0;
+        return x.count;
+    }
+
+    // Key order: start, then end
+    private static int compare(int start, int end, Node<?> x) {
+        int cmp = Integer.compare(start, x.start);
+        if (cmp != 0) return cmp;
+        return Integer.compare(end, x.end);
+    }
+
+    // Put Interval; replaces and returns the value already stored for the
+    // same (start, end), or returns null
+    public V put(int start, int end, V value) {
+        if (start > end) {
+            System.err.println("Error inserting interval: " + INVALID_INTERVAL);
+            return null;
+        }
+        Node<V> x = find(start, end);
+        if (x != null) {
+            V old = x.value;
+            x.value = value;
+            return old;
+        }
+        root = insert(root, start, end, value);
+        root.color = BLACK;
+        return null;
+    }
+
+    private Node<V> insert(Node<V> h, int start, int end, V value) {
+        if (h == null) return new Node<>(start, end, value);
+
+        if (compare(start, end, h) < 0) h.left = insert(h.left, start, end, value);
+        else h.right = insert(h.right, start, end, value);
+
+        if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+        return h;
+    }
+
+    public V get(int start, int end) {
+        Node<V> x = find(start, end);
+        return x == null ? null : x.value;
+    }
+
+    public boolean containsKey(int start, int end) {
+        return find(start, end) != null;
+    }
+
+    private Node<V> find(int start, int end) {
+        Node<V> x = root;
+        while (x != null) {
+            int cmp = compare(start, end, x);
+            if (cmp < 0) x = x.left;
+            else if (cmp > 0) x = x.right;
+            else return x;
+        }
+        return null;
+    }
+
+    // Remove Interval; returns the value it held, or null if absent
+    public V remove(int start, int end) {
+        if (start > end) {
+            System.err.println("Error deleting interval: " + INVALID_INTERVAL);
+            return null;
+        }
+        Node<V> x = find(start, end);
+        if (x == null) return null;
+        V old = x.value;
+        if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+        root = delete(root, start, end);
+        if (root != null) root.color = BLACK;
+        return old;
+    }
+
+    private Node<V> delete(Node<V> h, int start, int end) {
+        int cmp = compare(start, end, h);
+        if (cmp < 0) {
+            if (!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            h.left = delete(h.left, start, end);
+        } else {
+            // Rotations below can replace h, pushing the matched node to
+            // h.right; only remove it while it is still h.
+            Node<V> match = cmp == 0 ? h : null;
+            if (isRed(h.left))
+                h = rotateRight(h);
+            if (h == match && h.right == null)
+                return null;
+            if (!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+            if (h == match) {
+                Node<V> x = min(h.right);
+                h.start = x.start;
+                h.end = x.end;
+                h.value = x.value;
+                h.right = deleteMin(h.right);
+            } else {
+                h.right = delete(h.right, start, end);
+            }
+        }
+        return balance(h);
+    }
+
+    private Node<V> moveRedLeft(Node<V> h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node<V> moveRedRight(Node<V> h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node<V> min(Node<V> x) {
+        if (x.left == null) return x;
+        return min(x.left);
+    }
+
+    private Node<V> deleteMin(Node<V> h) {
+        if (h.left == null) return null;
+        if (!isRed(h.left) && !isRed(h.left.left))
+            h = moveRedLeft(h);
+        h.left = deleteMin(h.left);
+        return balance(h);
+    }
+
+    private Node<V> balance(Node<V> h) {
+        if (isRed(h.right)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        h.max = Math.max(h.end, Math.max(max(h.left), max(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+        return h;
+    }
+
+    // Find Overlapping Intervals
+    public List<Entry<V>> findOverlapping(int start, int end) {
+        List<Entry<V>> result = new ArrayList<>();
+        findOverlapping(start, end, (s, e, v) -> result.add(new Entry<>(s, e, v)));
+        return result;
+    }
+
+    public boolean findOverlapping(int start, int end, IntervalValueConsumer<? super V> consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        return findOverlapping(root, start, end, consumer);
+    }
+
+    private boolean findOverlapping(Node<V> x, int start, int end, IntervalValueConsumer<? super V> consumer) {
+        if (x == null) return true;
+        if (x.start <= end && start <= x.end && !consumer.accept(x.start, x.end, x.value)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= start
+                && !findOverlapping(x.left, start, end, consumer)) {
+            return false;
+        }
+        if (x.right != null && x.start <= end) {
+            return findOverlapping(x.right, start, end, consumer);
+        }
+        return true;
+    }
+
+    // Find All Contained Intervals
+    public List<Entry<V>> findContaining(int point) {
+        List<Entry<V>> result = new ArrayList<>();
+        findContaining(point, (s, e, v) -> result.add(new Entry<>(s, e, v)));
+        return result;
+    }
+
+    public boolean findContaining(int point, IntervalValueConsumer<? super V> consumer) {
+        return findContaining(root, point, consumer);
+    }
+
+    private boolean findContaining(Node<V> x, int point, IntervalValueConsumer<? super V> consumer) {
+        if (x == null) return true;
+        if (x.start <= point && point <= x.end && !consumer.accept(x.start, x.end, x.value)) {
+            return false;
+        }
+        if (x.left != null && x.left.max >= point
+                && !findContaining(x.left, point, consumer)) {
+            return false;
+        }
+        if (x.right != null && x.start <= point) {
+            return findContaining(x.right, point, consumer);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,1282 @@
+package redblackintervaltree;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class RedBlackIntervalTree {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static final String INVALID_INTERVAL = "Invalid interval: start cannot be greater than end";
+
+    private Node root;
+
+    // Keep every inserted interval, ordered by (start, end), instead of
+    // merging intervals that share a start
+    private final boolean allowDuplicates;
+
+    // Endpoint events of the stored intervals, for findMaxOverlapping. Built
+    // by the first depth query and kept up to date from then on, so updates
+    // only pay for it once it is used; a rebuild drops it again.
+    private DepthTree depth;
+
+    // Longest root-to-leaf path of an LLRB of up to Integer.MAX_VALUE nodes,
+    // 2 log2(n + 1); sizes the explicit stacks of the query walks
+    private static final int MAX_HEIGHT = 64;
+
+    // Scratch path of the iterative insert/delete: the nodes from the root
+    // down and which side each step took. Reused across updates.
+    private Node[] path = new Node[64];
+    private boolean[] wentLeft = new boolean[64];
+
+    public static class Interval {
+        int start, end;
+
+        Interval(int start, int end) {
+            if (start > end) {
+                throw new IllegalArgumentException(INVALID_INTERVAL);
+            }
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        boolean overlaps(Interval other) {
+            return this.start <= other.end && other.start <= this.end;
+        }
+
+        boolean contains(int point) {
+            return this.start <= point && point <= this.end;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + "]";
+        }
+    }
+
+    private class Node {
+        Interval interval;
+        Node left, right;
+        boolean color;
+        int max;
+        int minEnd;
+        int count;
+
+        Node(Interval interval) {
+            this.interval = interval;
+            this.color = RED;
+            this.max = interval.end;
+            this.minEnd = interval.end;
+            this.count = 1;
+        }
+    }
+
+    public RedBlackIntervalTree() {
+        this(false);
+    }
+
+    // With allowDuplicates, insert() always adds an entry and delete() removes
+    // one matching entry; otherwise an insert on a stored start widens it.
+    public RedBlackIntervalTree(boolean allowDuplicates) {
+        this.allowDuplicates = allowDuplicates;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean allowsDuplicates() {
+        return allowDuplicates;
+    }
+
+    // Helper methods
+    private boolean isRed(Node x) {
+        if (x == null) return false;
+        return x.color == RED;
+    }
+
+    private void flipColors(Node h) {
+        h.color = !h.color;
+        h.left.color = !h.left.color;
+        h.right.color = !h.right.color;
+    }
+
+    private Node rotateLeft(Node h) {
+        Node x = h.right;
+        h.right = x.left;
+        x.left = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        h.max = Math.max(h.interval.end, Math.max(max(h.left), max(h.right)));
+        x.minEnd = h.minEnd;
+        h.minEnd = Math.min(h.interval.end, Math.min(minEnd(h.left), minEnd(h.right)));
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    private Node rotateRight(Node h) {
+        Node x = h.left;
+        h.left = x.right;
+        x.right = h;
+        x.color = h.color;
+        h.color = RED;
+        x.max = h.max;
+        h.max = Math.max(h.interval.end, Math.max(max(h.left), max(h.right)));
+        x.minEnd = h.minEnd;
+        h.minEnd = Math.min(h.interval.end, Math.min(minEnd(h.left), minEnd(h.right)));
+        x.count = h.count;
+        h.count = 1 + size(h.left) + size(h.right);
+        return x;
+    }
+
+    private int max(Node x) {
+        if (x == null) return Integer.MIN_VALUE;
+        return x.max;
+    }
+
+    private int minEnd(Node x) {
+        if (x == null) return Integer.MAX_VALUE;
+        return x.minEnd;
+    }
+
+    private int size(Node x) {
+        if (x == null) return 0;
+        return x.count;
+    }
+
+    // Most nodes on a root-to-leaf path of subtree x while it is a valid
+    // LLRB, 2 log2(n + 1) + 2 for its n nodes, never above MAX_HEIGHT. The
+    // query walks check their depth against it: one that goes deeper is
+    // reading a tree torn by a concurrent writer, as the optimistic reads
+    // of ConcurrentIntervalTree can, and gives up instead of looping.
+    private int heightLimit(Node x) {
+        return 2 * blackHeight(size(x)) + 2;
+    }
+
+    // Insert Interval
+    public void insert(int start, int end) {
+        try {
+            root = insert(new Interval(start, end));
+            root.color = BLACK;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error inserting interval: " + e.getMessage());
+        }
+    }
+
+    // Descends recording the path, then applies the fix-ups bottom-up
+    private Node insert(Interval interval) {
+        int depth = 0;
+        Node x = root;
+        while (x != null) {
+            int cmp = compare(interval, x);
+            if (cmp == 0 && !allowDuplicates) break;
+            push(depth++, x, cmp < 0);
+            x = cmp < 0 ? x.left : x.right;
+        }
+
+        Node h;
+        if (x == null) {
+            addEvents(interval.start, interval.end, 1);
+            h = new Node(interval);
+        } else {
+            widen(x, interval);
+            h = fixUp(x);
+        }
+        return unwind(depth, h, false);
+    }
+
+    // Key order: start, then end when duplicates are kept
+    private int compare(Interval interval, Node h) {
+        int cmp = Integer.compare(interval.start, h.interval.start);
+        if (cmp != 0 || !allowDuplicates) return cmp;
+        return Integer.compare(interval.end, h.interval.end);
+    }
+
+    private void widen(Node h, Interval interval) {
+        if (interval.end > h.interval.end) {
+            moveEndEvent(h.interval.end, interval.end);
+            h.interval.end = interval.end;
+        }
+    }
+
+    private Node fixUp(Node h) {
+        if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        h.max = Math.max(h.interval.end, Math.max(max(h.left), max(h.right)));
+        h.minEnd = Math.min(h.interval.end, Math.min(minEnd(h.left), minEnd(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+        return h;
+    }
+
+    private void push(int depth, Node h, boolean left) {
+        if (depth == path.length) {
+            path = Arrays.copyOf(path, depth * 2);
+            wentLeft = Arrays.copyOf(wentLeft, depth * 2);
+        }
+        path[depth] = h;
+        wentLeft[depth] = left;
+    }
+
+    // Relinks the recorded path bottom-up onto the new subtree h, running
+    // fixUp (insert) or balance (delete) at every level.
+    private Node unwind(int depth, Node h, boolean deleting) {
+        while (depth > 0) {
+            Node parent = path[--depth];
+            path[depth] = null;
+            if (wentLeft[depth]) parent.left = h;
+            else parent.right = h;
+            h = deleting ? balance(parent) : fixUp(parent);
+        }
+        return h;
+    }
+
+    // Bulk Load: builds a balanced tree bottom-up in O(n) from intervals
+    // sorted by start, sorting them first if they are not. Equal starts merge
+    // the way insert() does.
+    public static RedBlackIntervalTree bulkLoad(int[] starts, int[] ends) {
+        return bulkLoad(starts, ends, false);
+    }
+
+    // bulkLoad into a tree with the given duplicate mode; with duplicates
+    // the input must be sorted by (start, end) to skip the sort.
+    public static RedBlackIntervalTree bulkLoad(int[] starts, int[] ends, boolean allowDuplicates) {
+        int[] s = new int[starts.length];
+        int[] e = new int[starts.length];
+        int n = sortedCopy(starts, ends, s, e, allowDuplicates, "Error loading interval: ");
+
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (!allowDuplicates && unique > 0 && s[i] == s[unique - 1]) {
+                e[unique - 1] = Math.max(e[unique - 1], e[i]);
+            } else {
+                s[unique] = s[i];
+                e[unique++] = e[i];
+            }
+        }
+
+        RedBlackIntervalTree tree = new RedBlackIntervalTree(allowDuplicates);
+        tree.rebuild(s, e, unique);
+        return tree;
+    }
+
+    // Snapshot: writes the intervals in key order to path in the
+    // MappedIntervalIndex format, which can be queried in place or read
+    // back with readSnapshot
+    public void writeSnapshot(Path path) throws IOException {
+        int n = size();
+        int[] s = new int[n];
+        int[] e = new int[n];
+        flatten(root, s, e, 0);
+        MappedIntervalIndex.write(path, s, e, n, allowDuplicates);
+    }
+
+    // Loads a snapshot into a new tree, built in O(n) like bulkLoad since
+    // the file is already in key order
+    public static RedBlackIntervalTree readSnapshot(Path path) throws IOException {
+        try (MappedIntervalIndex index = MappedIntervalIndex.open(path)) {
+            int n = index.size();
+            int[] s = new int[n];
+            int[] e = new int[n];
+            index.copyTo(s, e);
+            RedBlackIntervalTree tree = new RedBlackIntervalTree(index.allowsDuplicates());
+            tree.rebuild(s, e, n);
+            return tree;
+        }
+    }
+
+    // Read-only copy laid out in Eytzinger order for faster queries; later
+    // changes to this tree do not show in it
+    public FrozenIntervalTree freeze() {
+        int n = size();
+        int[] s = new int[n];
+        int[] e = new int[n];
+        flatten(root, s, e, 0);
+        return new FrozenIntervalTree(s, e, n);
+    }
+
+    // Copies the valid pairs into s and e and sorts them unless they already
+    // are in order, by start or, with byEnd, by (start, end). Returns how
+    // many pairs were kept.
+    private static int sortedCopy(int[] starts, int[] ends, int[] s, int[] e, boolean byEnd, String error) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("starts and ends must have the same length");
+        }
+        int n = 0;
+        boolean sorted = true;
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] > ends[i]) {
+                System.err.println(error + INVALID_INTERVAL);
+                continue;
+            }
+            if (n > 0 && (starts[i] < s[n - 1]
+                    || byEnd && starts[i] == s[n - 1] && ends[i] < e[n - 1])) {
+                sorted = false;
+            }
+            s[n] = starts[i];
+            e[n++] = ends[i];
+        }
+        if (!sorted) sortByStart(s, e, n);
+        return n;
+    }
+
+    // Replaces the contents with the first n pairs, sorted in key order. The
+    // endpoint tree is dropped and rebuilt on first use.
+    private void rebuild(int[] s, int[] e, int n) {
+        root = build(s, e, 0, n, blackHeight(n));
+        if (root != null) root.color = BLACK;
+        depth = null;
+    }
+
+    // Insert All: adds a batch of intervals, merging equal starts like
+    // insert(). A batch that is large next to the tree is merged with its
+    // in-order contents and rebuilt in O(n + k); a smaller one is inserted
+    // in sorted order, so consecutive descents run down a shared, cached path.
+    public void insertAll(int[] starts, int[] ends) {
+        insertAll(starts, ends, rebuildPays(starts.length, INSERT_REBUILD_RATIO));
+    }
+
+    void insertAll(int[] starts, int[] ends, boolean rebuild) {
+        int[] s = new int[starts.length];
+        int[] e = new int[starts.length];
+        int k = sortedCopy(starts, ends, s, e, true, "Error inserting interval: ");
+        if (!rebuild) {
+            for (int i = 0; i < k; i++) {
+                root = insert(new Interval(s[i], e[i]));
+                root.color = BLACK;
+            }
+            return;
+        }
+
+        int n = size();
+        int[] ts = new int[n + k];
+        int[] te = new int[n + k];
+        flatten(root, ts, te, 0);
+        int[] ms = new int[n + k];
+        int[] me = new int[n + k];
+        int m = 0;
+        for (int i = 0, j = 0; i < n || j < k; ) {
+            boolean fromTree = j == k
+                    || i < n && (ts[i] < s[j] || ts[i] == s[j] && te[i] <= e[j]);
+            int start = fromTree ? ts[i] : s[j];
+            int end = fromTree ? te[i++] : e[j++];
+            if (!allowDuplicates && m > 0 && start == ms[m - 1]) {
+                me[m - 1] = Math.max(me[m - 1], end);
+            } else {
+                ms[m] = start;
+                me[m++] = end;
+            }
+        }
+        rebuild(ms, me, m);
+    }
+
+    // Delete All: removes every interval of the batch that is present, one
+    // stored entry per batch entry, by rebuild or by sorted deletes like
+    // insertAll.
+    public void deleteAll(int[] starts, int[] ends) {
+        deleteAll(starts, ends, rebuildPays(starts.length, DELETE_REBUILD_RATIO));
+    }
+
+    void deleteAll(int[] starts, int[] ends, boolean rebuild) {
+        int[] s = new int[starts.length];
+        int[] e = new int[starts.length];
+        int k = sortedCopy(starts, ends, s, e, true, "Error deleting interval: ");
+        if (!rebuild) {
+            for (int i = 0; i < k; i++) delete(s[i], e[i]);
+            return;
+        }
+
+        int n = size();
+        int[] ts = new int[n];
+        int[] te = new int[n];
+        flatten(root, ts, te, 0);
+        int m = 0;
+        for (int i = 0, j = 0; i < n; i++) {
+            while (j < k && (s[j] < ts[i] || s[j] == ts[i] && e[j] < te[i])) j++;
+            if (j < k && s[j] == ts[i] && e[j] == te[i]) {
+                j++;
+                continue;
+            }
+            ts[m] = ts[i];
+            te[m++] = te[i];
+        }
+        rebuild(ts, te, m);
+    }
+
+    // A rebuild costs about n + k node visits against k descents of about
+    // log n each. In BatchUpdateBenchmark at 1M and 10M intervals it wins
+    // once the batch is above about a quarter of the tree for inserts, and
+    // an eighth for deletes, where the sorted deletes rebalance more.
+    private static final int INSERT_REBUILD_RATIO = 4;
+    private static final int DELETE_REBUILD_RATIO = 8;
+
+    private boolean rebuildPays(int k, int ratio) {
+        return (long) k * ratio >= size();
+    }
+
+    // Copies the intervals in key order into s and e
+    void copyTo(int[] s, int[] e) {
+        flatten(root, s, e, 0);
+    }
+
+    // In-order copy of the subtree into s and e from index i, returns the
+    // next free index. The stack holds the nodes whose left subtree is being
+    // copied.
+    private static int flatten(Node x, int[] s, int[] e, int i) {
+        Node[] stack = new Node[MAX_HEIGHT];
+        int top = 0;
+        while (true) {
+            for (; x != null; x = x.left) stack[top++] = x;
+            if (top == 0) return i;
+            x = stack[--top];
+            s[i] = x.interval.start;
+            e[i++] = x.interval.end;
+            x = x.right;
+        }
+    }
+
+    // Sorts the first n pairs by (start, end) as packed longs
+    private static void sortByStart(int[] s, int[] e, int n) {
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (long) s[i] << 32 | ((long) e[i] - Integer.MIN_VALUE);
+        }
+        Arrays.parallelSort(keys);
+        for (int i = 0; i < n; i++) {
+            s[i] = (int) (keys[i] >> 32);
+            e[i] = (int) (keys[i] + Integer.MIN_VALUE);
+        }
+    }
+
+    // Largest black height a tree of n nodes can have: floor(log2(n + 1))
+    private static int blackHeight(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n + 1);
+    }
+
+    // Fewest and most keys a 2-3 tree of black height h can hold
+    private static long minKeys(int h) {
+        return (1L << h) - 1;
+    }
+
+    private static long maxKeys(int h) {
+        long keys = 1;
+        for (int i = 0; i < h && keys <= Integer.MAX_VALUE; i++) keys *= 3;
+        return keys - 1;
+    }
+
+    // Builds the n sorted intervals from index lo as an LLRB subtree of black
+    // height h: a black 2-node when both halves fit height h - 1, otherwise a
+    // 3-node (black node with a red left child) over three near-equal thirds.
+    private Node build(int[] s, int[] e, int lo, int n, int h) {
+        if (n == 0) return null;
+        Node x;
+        int leftSize = n / 2, rightSize = n - 1 - leftSize;
+        if (leftSize <= maxKeys(h - 1) && rightSize >= minKeys(h - 1)) {
+            x = new Node(new Interval(s[lo + leftSize], e[lo + leftSize]));
+            x.left = build(s, e, lo, leftSize, h - 1);
+        } else {
+            int m = n - 2;
+            int a = (m + 2) / 3, b = (m + 1) / 3, c = m / 3;
+            Node red = new Node(new Interval(s[lo + a], e[lo + a]));
+            red.left = build(s, e, lo, a, h - 1);
+            red.right = build(s, e, lo + a + 1, b, h - 1);
+            pull(red);
+            x = new Node(new Interval(s[lo + a + 1 + b], e[lo + a + 1 + b]));
+            x.left = red;
+            rightSize = c;
+        }
+        x.right = build(s, e, lo + n - rightSize, rightSize, h - 1);
+        x.color = BLACK;
+        pull(x);
+        return x;
+    }
+
+    private void pull(Node h) {
+        h.max = Math.max(h.interval.end, Math.max(max(h.left), max(h.right)));
+        h.minEnd = Math.min(h.interval.end, Math.min(minEnd(h.left), minEnd(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+    }
+
+    // Delete Interval
+    public void delete(int start, int end) {
+        try {
+            Interval interval = new Interval(start, end);
+            if (!contains(root, interval)) return;
+            addEvents(start, end, -1);
+            if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+            root = delete(interval);
+            if (root != null) root.color = BLACK;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error deleting interval: " + e.getMessage());
+        }
+    }
+
+    // Whether [start, end] itself is stored
+    boolean contains(int start, int end) {
+        return start <= end && contains(root, new Interval(start, end));
+    }
+
+    private boolean contains(Node x, Interval interval) {
+        while (x != null) {
+            int cmp = compare(interval, x);
+            if (cmp < 0) x = x.left;
+            else if (cmp > 0) x = x.right;
+            else return interval.end == x.interval.end;
+        }
+        return false;
+    }
+
+    // Top-down LLRB delete: the moveRedLeft/moveRedRight transformations are
+    // applied while descending, the balance() calls while unwinding the
+    // recorded path. The interval must be present.
+    private Node delete(Interval interval) {
+        int depth = 0;
+        Node h = root;
+        while (true) {
+            int cmp = compare(interval, h);
+            if (cmp < 0) {
+                if (!isRed(h.left) && !isRed(h.left.left))
+                    h = moveRedLeft(h);
+                push(depth++, h, true);
+                h = h.left;
+                continue;
+            }
+            // Rotations below can replace h, pushing the matched node to
+            // h.right; only remove it while it is still h. With duplicates the
+            // node rotated up may compare equal and must not be taken instead.
+            Node match = cmp == 0 ? h : null;
+            if (isRed(h.left))
+                h = rotateRight(h);
+            if (h == match && h.right == null)
+                return unwind(depth, null, true);
+            if (!isRed(h.right) && !isRed(h.right.left))
+                h = moveRedRight(h);
+            push(depth++, h, false);
+            if (h == match) {
+                h.interval = min(h.right).interval;
+                h = h.right;
+                break;
+            }
+            h = h.right;
+        }
+
+        // deleteMin of the right subtree of the matched node
+        while (h.left != null) {
+            if (!isRed(h.left) && !isRed(h.left.left))
+                h = moveRedLeft(h);
+            push(depth++, h, true);
+            h = h.left;
+        }
+        return unwind(depth, null, true);
+    }
+
+    private Node moveRedLeft(Node h) {
+        flipColors(h);
+        if (isRed(h.right.left)) {
+            h.right = rotateRight(h.right);
+            h = rotateLeft(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node moveRedRight(Node h) {
+        flipColors(h);
+        if (isRed(h.left.left)) {
+            h = rotateRight(h);
+            flipColors(h);
+        }
+        return h;
+    }
+
+    private Node min(Node x) {
+        while (x.left != null) x = x.left;
+        return x;
+    }
+
+    private Node balance(Node h) {
+        if (isRed(h.right)) h = rotateLeft(h);
+        if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+        if (isRed(h.left) && isRed(h.right)) flipColors(h);
+
+        h.max = Math.max(h.interval.end, Math.max(max(h.left), max(h.right)));
+        h.minEnd = Math.min(h.interval.end, Math.min(minEnd(h.left), minEnd(h.right)));
+        h.count = 1 + size(h.left) + size(h.right);
+        return h;
+    }
+
+    // Find Overlapping Intervals
+    public List<Interval> findOverlapping(int start, int end) {
+        List<Interval> result = new ArrayList<>();
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return result;
+        }
+        findOverlapping(start, end, result, null);
+        return result;
+    }
+
+    // Find Overlapping Intervals without building a list: hits go to the
+    // consumer, returns false if the consumer stopped the query
+    public boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return true;
+        }
+        return findOverlapping(start, end, null, consumer);
+    }
+
+    // Pruned pre-order walk: a node, then its left subtree if that reaches
+    // start, then its right subtree if the node starts by end. The stack
+    // holds the right subtrees left for later, with the depth of their
+    // parent. Hits go into result when one is given, otherwise to the
+    // consumer.
+    private boolean findOverlapping(int start, int end, List<Interval> result, IntervalConsumer consumer) {
+        Node[] stack = new Node[MAX_HEIGHT];
+        int[] depths = new int[MAX_HEIGHT];
+        int top = 0, depth = 0, limit = heightLimit(root);
+        Node x = root;
+        while (true) {
+            while (x != null) {
+                if (++depth > limit) throw new ConcurrentModificationException();
+                if (x.interval.start <= end && start <= x.interval.end) {
+                    if (result != null) result.add(x.interval);
+                    else if (!consumer.accept(x.interval.start, x.interval.end)) return false;
+                }
+                Node right = x.interval.start <= end ? x.right : null;
+                if (x.left != null && x.left.max >= start) {
+                    if (right != null) {
+                        stack[top] = right;
+                        depths[top++] = depth;
+                    }
+                    x = x.left;
+                } else {
+                    x = right;
+                }
+            }
+            if (top == 0) return true;
+            x = stack[--top];
+            depth = depths[top];
+        }
+    }
+
+    // Find Overlapping Intervals on several threads, for queries that cover a
+    // large part of the tree. The hits are counted first and written in key
+    // order into exactly sized arrays: a subtree holding enough hits is
+    // split into a ForkJoin task per child, each told where its hits go from
+    // the count of the left part.
+    public IntervalHits findOverlappingParallel(int start, int end) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return new IntervalHits(new int[2], new int[0], new int[0]);
+        }
+        int n = countOverlapping(root, start, end, false);
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        new OverlapTask(root, start, end, false, starts, ends, 0, n).invoke();
+        return new IntervalHits(new int[] { 0, n }, starts, ends);
+    }
+
+    // Writes the hits of subtree x in key order from index at, returns the
+    // index past the last one. An in-order walk like flatten, skipping
+    // subtrees that end before start and stopping at the first node that
+    // starts past end.
+    private int fillOverlapping(Node x, int start, int end, int[] starts, int[] ends, int at) {
+        Node[] stack = new Node[MAX_HEIGHT];
+        int top = 0;
+        while (true) {
+            for (; x != null && x.max >= start; x = x.left) stack[top++] = x;
+            if (top == 0) return at;
+            x = stack[--top];
+            if (x.interval.start > end) return at;
+            if (x.interval.end >= start) {
+                starts[at] = x.interval.start;
+                ends[at++] = x.interval.end;
+            }
+            x = x.right;
+        }
+    }
+
+    // Resumable form of the overlap query for ConcurrentIntervalTree: writes
+    // up to pairs.length / 2 hits of [start, end] into pairs, in key order
+    // as (start, end) pairs, and returns how many. With resume set the walk
+    // starts after the interval [fromStart, fromEnd] the previous chunk
+    // ended on: without duplicates every start up to fromStart is passed
+    // over, with duplicates every key before it and the first seen entries
+    // equal to it. An in-order walk like fillOverlapping whose left spine
+    // skips the subtrees before the cursor; the depth guard is the one of
+    // findOverlapping.
+    int fillOverlapping(int start, int end, boolean resume, int fromStart, int fromEnd, int seen, int[] pairs) {
+        Node[] stack = new Node[MAX_HEIGHT];
+        int[] depths = new int[MAX_HEIGHT];
+        int top = 0, depth = 0, n = 0, limit = heightLimit(root);
+        Node x = root;
+        while (true) {
+            while (x != null && x.max >= start) {
+                if (++depth > limit) throw new ConcurrentModificationException();
+                if (resume && before(x.interval, fromStart, fromEnd)) {
+                    x = x.right;
+                } else {
+                    stack[top] = x;
+                    depths[top++] = depth;
+                    x = x.left;
+                }
+            }
+            if (top == 0) return n;
+            x = stack[--top];
+            depth = depths[top];
+            Interval i = x.interval;
+            if (i.start > end) return n;
+            if (i.end >= start) {
+                if (resume && seen > 0 && i.start == fromStart && i.end == fromEnd) {
+                    seen--;
+                } else {
+                    pairs[2 * n] = i.start;
+                    pairs[2 * n + 1] = i.end;
+                    if (++n == pairs.length / 2) return n;
+                }
+            }
+            x = x.right;
+        }
+    }
+
+    // Whether the interval comes before the cursor [fromStart, fromEnd] of
+    // fillOverlapping; without duplicates the cursor's own start counts too
+    private boolean before(Interval i, int fromStart, int fromEnd) {
+        if (!allowDuplicates) return i.start <= fromStart;
+        return i.start < fromStart || i.start == fromStart && i.end < fromEnd;
+    }
+
+    // The n hits of subtree x, written from index at. startsFit as in
+    // countOverlapping.
+    private class OverlapTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int MIN_FORK = 1 << 14;
+
+        private final Node x;
+        private final int start, end;
+        private final boolean startsFit;
+        private final int[] starts, ends;
+        private final int at, n;
+
+        OverlapTask(Node x, int start, int end, boolean startsFit, int[] starts, int[] ends, int at, int n) {
+            this.x = x;
+            this.start = start;
+            this.end = end;
+            this.startsFit = startsFit;
+            this.starts = starts;
+            this.ends = ends;
+            this.at = at;
+            this.n = n;
+        }
+
+        @Override
+        protected void compute() {
+            if (n < MIN_FORK) {
+                fillOverlapping(x, start, end, starts, ends, at);
+                return;
+            }
+            boolean fits = x.interval.start <= end;
+            int left = countOverlapping(x.left, start, end, startsFit || fits);
+            int self = fits && x.interval.end >= start ? 1 : 0;
+            if (self == 1) {
+                starts[at + left] = x.interval.start;
+                ends[at + left] = x.interval.end;
+            }
+            int right = n - left - self;
+            if (left == 0) {
+                new OverlapTask(x.right, start, end, startsFit, starts, ends, at + self, right).compute();
+            } else if (right == 0) {
+                new OverlapTask(x.left, start, end, startsFit || fits, starts, ends, at, left).compute();
+            } else {
+                invokeAll(new OverlapTask(x.left, start, end, startsFit || fits, starts, ends, at, left),
+                        new OverlapTask(x.right, start, end, startsFit, starts, ends, at + left + self, right));
+            }
+        }
+    }
+
+    // Count Overlapping Intervals without visiting them all: a subtree whose
+    // starts are all <= end and whose ends are all >= start (minEnd) is
+    // counted whole from its size
+    public int countOverlapping(int start, int end) {
+        if (start > end) {
+            System.err.println("Error counting overlapping intervals: " + INVALID_INTERVAL);
+            return 0;
+        }
+        return countOverlapping(root, start, end, false);
+    }
+
+    // startsFit: the ancestors already bound every start in x's subtree by
+    // end. Left subtrees hold starts <= x's, right subtrees starts >= x's.
+    // The stack holds the right subtrees left for later, each with its own
+    // startsFit and the depth of its parent.
+    private int countOverlapping(Node x, int start, int end, boolean startsFit) {
+        Node[] stack = new Node[MAX_HEIGHT];
+        boolean[] fit = new boolean[MAX_HEIGHT];
+        int[] depths = new int[MAX_HEIGHT];
+        int total = 0, top = 0, depth = 0, limit = heightLimit(x);
+        while (true) {
+            while (x != null && x.max >= start) {
+                if (++depth > limit) throw new ConcurrentModificationException();
+                if (startsFit && x.minEnd >= start) {
+                    total += x.count;
+                    break;
+                }
+                boolean fits = x.interval.start <= end;
+                if (fits && x.interval.end >= start) total++;
+                if (fits && x.right != null) {
+                    stack[top] = x.right;
+                    fit[top] = startsFit;
+                    depths[top++] = depth;
+                }
+                startsFit |= fits;
+                x = x.left;
+            }
+            if (top == 0) return total;
+            x = stack[--top];
+            startsFit = fit[top];
+            depth = depths[top];
+        }
+    }
+
+    // Any Overlapping Interval: single root-to-leaf descent. If the left
+    // subtree reaches start but holds no overlap, its widest interval starts
+    // past end, and so does everything to the right: only one side can match.
+    public boolean anyOverlap(int start, int end) {
+        if (start > end) {
+            System.err.println("Error finding overlapping intervals: " + INVALID_INTERVAL);
+            return false;
+        }
+        Node x = root;
+        for (int depth = 1, limit = heightLimit(root); x != null; depth++) {
+            if (depth > limit) throw new ConcurrentModificationException();
+            if (x.interval.start <= end && start <= x.interval.end) return true;
+            if (x.left != null && x.left.max >= start) x = x.left;
+            else if (x.interval.start > end) return false;
+            else x = x.right;
+        }
+        return false;
+    }
+
+    // Stream Overlapping Intervals lazily, parallel streams split the walk at
+    // subtree boundaries
+    public Stream<Interval> streamOverlapping(int start, int end) {
+        if (start > end) {
+            System.err.println("Error streaming overlapping intervals: " + INVALID_INTERVAL);
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new OverlapSpliterator(root, start, end), false);
+    }
+
+    // Walks the same pruned pre-order as findOverlapping with an explicit
+    // stack. Each entry is a subtree still to visit, or a single node whose
+    // children were handed out by trySplit.
+    private class OverlapSpliterator implements Spliterator<Interval> {
+        private static final int MIN_SPLIT = 1 << 10;
+
+        private final int start, end;
+        private Node[] nodes = new Node[16];
+        private boolean[] single = new boolean[16];
+        private int top;
+
+        OverlapSpliterator(Node root, int start, int end) {
+            this.start = start;
+            this.end = end;
+            if (root != null && root.max >= start) push(root, false);
+        }
+
+        private OverlapSpliterator(int start, int end, Node[] nodes, boolean[] single, int top) {
+            this.start = start;
+            this.end = end;
+            this.nodes = nodes;
+            this.single = single;
+            this.top = top;
+        }
+
+        private void push(Node x, boolean alone) {
+            if (top == nodes.length) {
+                nodes = Arrays.copyOf(nodes, top * 2);
+                single = Arrays.copyOf(single, top * 2);
+            }
+            nodes[top] = x;
+            single[top++] = alone;
+        }
+
+        // Queues the children of x that can still hold overlaps, left on top
+        private void pushChildren(Node x) {
+            if (x.right != null && x.interval.start <= end) push(x.right, false);
+            if (x.left != null && x.left.max >= start) push(x.left, false);
+        }
+
+        private boolean overlaps(Node x) {
+            return x.interval.start <= end && start <= x.interval.end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Interval> action) {
+            while (top > 0) {
+                Node x = nodes[--top];
+                if (!single[top]) pushChildren(x);
+                if (overlaps(x)) {
+                    action.accept(x.interval);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<Interval> trySplit() {
+            if (top == 1 && !single[0]) {
+                Node x = nodes[--top];
+                pushChildren(x);
+                if (overlaps(x)) push(x, true);
+            }
+            if (top < 2 || estimateSize() < MIN_SPLIT) return null;
+
+            // Hand out the entries on top of the stack, which come first in
+            // encounter order, until they cover about half of the estimate
+            long half = estimateSize() / 2, covered = 0;
+            int cut = top;
+            while (cut > 1 && covered < half) covered += weight(--cut);
+            int taken = top - cut, capacity = Math.max(taken, 16);
+            Node[] prefixNodes = Arrays.copyOfRange(nodes, cut, cut + capacity);
+            boolean[] prefixSingle = Arrays.copyOfRange(single, cut, cut + capacity);
+            Arrays.fill(nodes, cut, top, null);
+            top = cut;
+            return new OverlapSpliterator(start, end, prefixNodes, prefixSingle, taken);
+        }
+
+        private int weight(int i) {
+            return single[i] ? 1 : nodes[i].count;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int i = 0; i < top; i++) size += weight(i);
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL;
+        }
+    }
+
+    // Find Maximum Overlapping Intervals: the first stretch of points covered
+    // by the most intervals, read off the endpoint tree in O(1)
+    public Interval findMaxOverlapping() {
+        if (root == null) return null;
+        DepthTree depth = depth();
+        return new Interval(depth.point(), depth.until());
+    }
+
+    // Number of intervals covering the points of findMaxOverlapping()
+    public int maxOverlapDepth() {
+        return depth().best();
+    }
+
+    // Whether a depth query would answer without building the endpoint tree
+    boolean hasDepthTree() {
+        return depth != null;
+    }
+
+    private DepthTree depth() {
+        if (depth == null) {
+            depth = new DepthTree();
+            addAllEvents(root);
+        }
+        return depth;
+    }
+
+    private void addAllEvents(Node x) {
+        if (x == null) return;
+        addEvents(x.interval.start, x.interval.end, 1);
+        addAllEvents(x.left);
+        addAllEvents(x.right);
+    }
+
+    // An interval [start, end] is +1 at start and -1 just past end
+    private void addEvents(int start, int end, int delta) {
+        if (depth == null) return;
+        depth.add(start, delta);
+        if (end != Integer.MAX_VALUE) depth.add(end + 1, -delta);
+    }
+
+    private void moveEndEvent(int from, int to) {
+        if (depth == null) return;
+        if (from != Integer.MAX_VALUE) depth.add(from + 1, 1);
+        if (to != Integer.MAX_VALUE) depth.add(to + 1, -1);
+    }
+
+    // Find All Contained Intervals: the overlap walk with [point, point]
+    public List<Interval> findContaining(int point) {
+        List<Interval> result = new ArrayList<>();
+        findOverlapping(point, point, result, null);
+        return result;
+    }
+
+    // Find All Contained Intervals without building a list, returns false if
+    // the consumer stopped the query
+    public boolean findContaining(int point, IntervalConsumer consumer) {
+        return findOverlapping(point, point, null, consumer);
+    }
+
+    // Find All Contained Intervals for a batch of points in one sweep. The
+    // points are taken in ascending order (sorted first if needed) against an
+    // in-order walk of the tree: intervals enter a min-heap on their end once
+    // their start is reached and leave it once a point passes the end, so the
+    // heap holds exactly the hits of the current point. Subtrees whose max
+    // is behind the current point are skipped for good. Hits come back per
+    // input point, in input order.
+    public IntervalHits findContaining(int[] points) {
+        int m = points.length;
+        boolean sorted = true;
+        for (int i = 1; i < m && sorted; i++) sorted = points[i - 1] <= points[i];
+        long[] order = null;
+        if (!sorted) {
+            order = new long[m];
+            for (int i = 0; i < m; i++) order[i] = (long) points[i] << 32 | i;
+            Arrays.parallelSort(order);
+        }
+
+        int[] offsets = new int[m + 1];
+        int[] starts = new int[Math.max(16, m)];
+        int[] ends = new int[starts.length];
+        int n = 0;
+        long[] heap = new long[16];
+        int heapSize = 0;
+        Node[] stack = new Node[64];
+        int top = 0;
+        Node next = root;
+        for (int k = 0; k < m; k++) {
+            int point = sorted ? points[k] : (int) (order[k] >> 32);
+
+            // Admit every interval starting at or before the point
+            while (true) {
+                for (; next != null && next.max >= point; next = next.left) {
+                    if (top == stack.length) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = next;
+                }
+                if (top == 0 || stack[top - 1].interval.start > point) break;
+                Node x = stack[--top];
+                next = x.right;
+                if (x.interval.end < point) continue;
+                if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+                heapSize = siftUp(heap, heapSize, (long) x.interval.end << 32 | (x.interval.start & 0xFFFFFFFFL));
+            }
+            // and retire the ones ending before it
+            while (heapSize > 0 && (int) (heap[0] >> 32) < point) {
+                heapSize = removeMin(heap, heapSize);
+            }
+
+            offsets[k] = n;
+            if (n + heapSize > starts.length) {
+                int capacity = Math.max(starts.length * 2, n + heapSize);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+            }
+            for (int i = 0; i < heapSize; i++) {
+                starts[n] = (int) heap[i];
+                ends[n++] = (int) (heap[i] >> 32);
+            }
+        }
+        offsets[m] = n;
+        if (sorted) return new IntervalHits(offsets, starts, ends);
+
+        // Scatter the per-point blocks back to input order
+        int[] inputOffsets = new int[m + 1];
+        for (int k = 0; k < m; k++) inputOffsets[(int) order[k] + 1] = offsets[k + 1] - offsets[k];
+        for (int i = 0; i < m; i++) inputOffsets[i + 1] += inputOffsets[i];
+        int[] inputStarts = new int[n];
+        int[] inputEnds = new int[n];
+        for (int k = 0; k < m; k++) {
+            int to = inputOffsets[(int) order[k]], length = offsets[k + 1] - offsets[k];
+            System.arraycopy(starts, offsets[k], inputStarts, to, length);
+            System.arraycopy(ends, offsets[k], inputEnds, to, length);
+        }
+        return new IntervalHits(inputOffsets, inputStarts, inputEnds);
+    }
+
+    // Binary min-heap over the first size entries; both return the new size
+    private static int siftUp(long[] heap, int size, long key) {
+        int i = size;
+        while (i > 0 && heap[(i - 1) / 2] > key) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = key;
+        return size + 1;
+    }
+
+    private static int removeMin(long[] heap, int size) {
+        long key = heap[--size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= key) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+        return size;
+    }
+
+    // Any Containing Interval
+    public boolean anyContaining(int point) {
+        return anyOverlap(point, point);
+    }
+
+    // Count All Contained Intervals
+    public int countContaining(int point) {
+        return countOverlapping(root, point, point, false);
+    }
+
+    // Overlap Join: hands every pair of an interval of this tree and an
+    // overlapping interval of other to the consumer, this tree's interval
+    // first. Returns false if the consumer stopped the join.
+    public boolean overlapJoin(RedBlackIntervalTree other, IntervalPairConsumer consumer) {
+        return overlapJoin(other, consumer, false);
+    }
+
+    // With parallel, pairs of large subtrees are joined as ForkJoin tasks in
+    // the common pool, so the consumer is called from several threads at
+    // once. A stop is seen by the other tasks at their next pair. Neither
+    // tree may change during the join.
+    public boolean overlapJoin(RedBlackIntervalTree other, IntervalPairConsumer consumer, boolean parallel) {
+        if (!parallel) return joinSubtrees(root, Integer.MIN_VALUE, other.root, Integer.MIN_VALUE, consumer);
+        AtomicBoolean stopped = new AtomicBoolean();
+        IntervalPairConsumer guarded = (start, end, otherStart, otherEnd) -> {
+            if (stopped.get()) return false;
+            if (consumer.accept(start, end, otherStart, otherEnd)) return true;
+            stopped.set(true);
+            return false;
+        };
+        new JoinTask(root, Integer.MIN_VALUE, other.root, Integer.MIN_VALUE, guarded, stopped).invoke();
+        return !stopped.get();
+    }
+
+    // Joins subtree a of this tree with subtree b of the other. aLo and bLo
+    // bound the starts in each subtree from below, as left in place by the
+    // ancestors, so the pair is dropped once either side starts past the
+    // other's max. The larger side gives up its root, which is matched
+    // against the whole other subtree before its children are joined with
+    // it; every pair is met exactly once.
+    private boolean joinSubtrees(Node a, int aLo, Node b, int bLo, IntervalPairConsumer consumer) {
+        while (a != null && b != null && aLo <= b.max && bLo <= a.max) {
+            if (a.count >= b.count) {
+                if (!probe(b, a.interval.start, a.interval.end, false, consumer)
+                        || !joinSubtrees(a.left, aLo, b, bLo, consumer)) {
+                    return false;
+                }
+                aLo = a.interval.start;
+                a = a.right;
+            } else {
+                if (!probe(a, b.interval.start, b.interval.end, true, consumer)
+                        || !joinSubtrees(a, aLo, b.left, bLo, consumer)) {
+                    return false;
+                }
+                bLo = b.interval.start;
+                b = b.right;
+            }
+        }
+        return true;
+    }
+
+    // findOverlapping of [start, end] in subtree x, reporting pairs. mine:
+    // x belongs to this tree, so its interval goes first.
+    private boolean probe(Node x, int start, int end, boolean mine, IntervalPairConsumer consumer) {
+        while (x != null) {
+            if (x.interval.start <= end && start <= x.interval.end
+                    && !(mine ? consumer.accept(x.interval.start, x.interval.end, start, end)
+                              : consumer.accept(start, end, x.interval.start, x.interval.end))) {
+                return false;
+            }
+            if (x.left != null && x.left.max >= start && !probe(x.left, start, end, mine, consumer)) {
+                return false;
+            }
+            if (x.interval.start > end) break;
+            x = x.right;
+        }
+        return true;
+    }
+
+    // One step of joinSubtrees() per task: the larger side's root is probed
+    // here and the two remaining subtree pairs are forked, until a pair is
+    // small enough to finish sequentially
+    private class JoinTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int MIN_FORK = 1 << 13;
+
+        private final Node a, b;
+        private final int aLo, bLo;
+        private final IntervalPairConsumer consumer;
+        private final AtomicBoolean stopped;
+
+        JoinTask(Node a, int aLo, Node b, int bLo, IntervalPairConsumer consumer, AtomicBoolean stopped) {
+            this.a = a;
+            this.aLo = aLo;
+            this.b = b;
+            this.bLo = bLo;
+            this.consumer = consumer;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped.get() || a == null || b == null || aLo > b.max || bLo > a.max) return;
+            if (a.count + b.count < MIN_FORK) {
+                joinSubtrees(a, aLo, b, bLo, consumer);
+                return;
+            }
+            if (a.count >= b.count) {
+                if (!probe(b, a.interval.start, a.interval.end, false, consumer)) return;
+                invokeAll(new JoinTask(a.left, aLo, b, bLo, consumer, stopped),
+                        new JoinTask(a.right, a.interval.start, b, bLo, consumer, stopped));
+            } else {
+                if (!probe(a, b.interval.start, b.interval.end, true, consumer)) return;
+                invokeAll(new JoinTask(a, aLo, b.left, bLo, consumer, stopped),
+                        new JoinTask(a, aLo, b.right, b.interval.start, consumer, stopped));
+            }
+        }
+    }
+
+    // Utility method to print the tree (for debugging)
+    public void printTree() {
+        printTree(root, 0);
+    }
+
+    private void printTree(Node x, int level) {
+        if (x == null) return;
+        printTree(x.right, level + 1);
+        for (int i = 0; i < level; i++) System.out.print("    ");
+        System.out.println(x.interval + " (max: " + x.max + ", color: " + (x.color == RED ? "RED" : "BLACK") + ")");
+        printTree(x.left, level + 1);
+    }
+}
\ No newline at end of file
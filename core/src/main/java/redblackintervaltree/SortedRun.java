@@ -0,0 +1,80 @@
+package redblackintervaltree;
+
+// Immutable run of an LsmIntervalTree: entries sorted by (start, end), each
+// an interval or a tombstone, plus the max ends of the implicit tree over
+// them laid out as in ImplicitIntervalTree. Tombstones count towards max,
+// which only makes the pruning a little looser.
+final class SortedRun {
+
+    final int[] starts, ends;
+    final boolean[] tombstone;
+    private final int[] max;
+    final int size;
+
+    SortedRun(int[] starts, int[] ends, boolean[] tombstone, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.tombstone = tombstone;
+        this.size = size;
+        this.max = new int[size];
+        ImplicitIntervalTree.fillMax(ends, max, 0, size);
+    }
+
+    // Whether the run has an entry, live or tombstone, for [start, end]
+    boolean has(int start, int end) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(starts[mid], ends[mid], start, end);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    static int compare(int s1, int e1, int s2, int e2) {
+        int cmp = Integer.compare(s1, s2);
+        return cmp != 0 ? cmp : Integer.compare(e1, e2);
+    }
+
+    // Live entries overlapping [start, end], in key order
+    boolean findOverlapping(int start, int end, IntervalConsumer consumer) {
+        return findOverlapping(0, size, start, end, consumer);
+    }
+
+    private boolean findOverlapping(int lo, int hi, int start, int end, IntervalConsumer consumer) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (max[mid] < start) return true;
+            if (!findOverlapping(lo, mid, start, end, consumer)) return false;
+            if (starts[mid] > end) return true;
+            if (ends[mid] >= start && !tombstone[mid] && !consumer.accept(starts[mid], ends[mid])) return false;
+            lo = mid + 1;
+        }
+        return true;
+    }
+
+    // Merges an older and a newer run; the newer entry wins on equal keys.
+    // dropTombstones when nothing older than this run remains to shadow.
+    static SortedRun merge(SortedRun older, SortedRun newer, boolean dropTombstones) {
+        int capacity = older.size + newer.size;
+        int[] s = new int[capacity];
+        int[] e = new int[capacity];
+        boolean[] t = new boolean[capacity];
+        int n = 0;
+        for (int i = 0, j = 0; i < older.size || j < newer.size; ) {
+            int cmp = i == older.size ? 1
+                    : j == newer.size ? -1
+                    : compare(older.starts[i], older.ends[i], newer.starts[j], newer.ends[j]);
+            SortedRun from = cmp < 0 ? older : newer;
+            int k = cmp < 0 ? i++ : j++;
+            if (cmp == 0) i++;
+            if (dropTombstones && from.tombstone[k]) continue;
+            s[n] = from.starts[k];
+            e[n] = from.ends[k];
+            t[n++] = from.tombstone[k];
+        }
+        return new SortedRun(s, e, t, n);
+    }
+}
@@ -0,0 +1,129 @@
+package redblackintervaltree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentIntervalTreeTest {
+
+    private static List<String> visit(ConcurrentIntervalTree tree, int start, int end) {
+        List<String> result = new ArrayList<>();
+        tree.findOverlapping(start, end, (s, e) -> result.add(s + ".." + e));
+        return result;
+    }
+
+    private static List<String> keyOrder(List<RedBlackIntervalTree.Interval> intervals) {
+        List<String> result = new ArrayList<>();
+        intervals.stream()
+                .sorted(Comparator.comparingInt(RedBlackIntervalTree.Interval::getStart)
+                        .thenComparingInt(RedBlackIntervalTree.Interval::getEnd))
+                .forEach(i -> result.add(i.getStart() + ".." + i.getEnd()));
+        return result;
+    }
+
+    @Test
+    void visitorMatchesTheListInKeyOrder() {
+        for (boolean duplicates : new boolean[] { false, true }) {
+            ConcurrentIntervalTree tree = new ConcurrentIntervalTree(duplicates);
+            // More equal entries than one chunk holds
+            for (int i = 0; i < 300; i++) tree.insert(500, 600);
+            Random random = new Random(7);
+            for (int i = 0; i < 20_000; i++) {
+                int start = random.nextInt(50_000);
+                tree.insert(start, start + random.nextInt(400));
+            }
+            for (int q = 0; q < 500; q++) {
+                int start = q == 0 ? 0 : random.nextInt(50_000);
+                int end = start + (q % 10 == 0 ? 20_000 : 1_000);
+                assertEquals(keyOrder(tree.findOverlapping(start, end)), visit(tree, start, end),
+                        "query " + start + ".." + end + ", duplicates " + duplicates);
+            }
+        }
+    }
+
+    @Test
+    void visitorStopsWhenTheConsumerDoes() {
+        ConcurrentIntervalTree tree = new ConcurrentIntervalTree();
+        for (int i = 0; i < 1_000; i++) tree.insert(i, i + 10);
+        int[] calls = { 0 };
+        assertFalse(tree.findOverlapping(0, 2_000, (s, e) -> ++calls[0] < 100));
+        assertEquals(100, calls[0]);
+    }
+
+    @Test
+    void consumerMayUpdateTheTree() {
+        ConcurrentIntervalTree tree = new ConcurrentIntervalTree();
+        for (int i = 0; i < 200; i++) tree.insert(i * 10, i * 10 + 5);
+        tree.findOverlapping(0, 2_000, (s, e) -> {
+            tree.delete(s, e);
+            return true;
+        });
+        assertEquals(0, tree.size());
+    }
+
+    // One writer toggles the odd intervals while readers query; the even
+    // ones never change, so every query must report all of them in range
+    @Test
+    void readersSeeAConsistentTreeUnderAWriter() throws InterruptedException {
+        int n = 20_000;
+        ConcurrentIntervalTree tree = new ConcurrentIntervalTree();
+        for (int i = 0; i < n; i++) tree.insert(i * 10, i * 10 + 15);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            Random random = new Random(1);
+            for (int i = 0; i < 200_000; i++) {
+                int k = (random.nextInt(n / 2) * 2 + 1) * 10;
+                tree.delete(k, k + 15);
+                tree.insert(k, k + 15);
+            }
+            done.set(true);
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            long seed = r;
+            readers.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    while (!done.get()) {
+                        int start = random.nextInt(n * 10), end = start + 2_000;
+                        int[] stable = { 0 };
+                        long[] last = { Long.MIN_VALUE };
+                        tree.findOverlapping(start, end, (s, e) -> {
+                            assertTrue(s <= end && start <= e, "not overlapping: " + s + ".." + e);
+                            assertTrue(s > last[0], "out of order: " + s);
+                            last[0] = s;
+                            if (s % 20 == 0) stable[0]++;
+                            return true;
+                        });
+                        int expected = 0;
+                        for (int k = Math.max(0, (start - 15 + 19) / 20 * 20); k <= end && k < n * 10; k += 20) {
+                            expected++;
+                        }
+                        assertEquals(expected, stable[0], "even intervals in " + start + ".." + end);
+                        assertTrue(tree.countOverlapping(start, end) >= expected);
+                        assertTrue(tree.anyOverlap(start, end));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        writer.start();
+        for (Thread reader : readers) reader.start();
+        writer.join();
+        for (Thread reader : readers) reader.join();
+        if (failure.get() != null) throw new AssertionError(failure.get());
+        assertEquals(n, tree.size());
+    }
+}
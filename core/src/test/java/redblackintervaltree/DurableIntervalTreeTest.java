@@ -0,0 +1,143 @@
+package redblackintervaltree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DurableIntervalTreeTest {
+
+    @TempDir
+    Path directory;
+
+    private DurableIntervalTree open() throws IOException {
+        return DurableIntervalTree.open(directory, false, 0, 0);
+    }
+
+    private static List<String> contents(DurableIntervalTree tree) {
+        List<String> result = new ArrayList<>();
+        tree.findOverlapping(Integer.MIN_VALUE, Integer.MAX_VALUE, (s, e) -> result.add(s + ".." + e));
+        return result;
+    }
+
+    private void append(String file, byte[] bytes, long at) throws IOException {
+        try (FileChannel log = FileChannel.open(directory.resolve(file), StandardOpenOption.WRITE)) {
+            log.write(ByteBuffer.wrap(bytes), at);
+        }
+    }
+
+    @Test
+    void reopenReplaysTheLog() throws IOException {
+        List<String> expected;
+        try (DurableIntervalTree tree = open()) {
+            for (int i = 0; i < 100; i++) tree.insert(i * 10, i * 10 + 5);
+            for (int i = 0; i < 100; i += 3) tree.delete(i * 10, i * 10 + 5);
+            expected = contents(tree);
+        }
+        try (DurableIntervalTree tree = open()) {
+            assertEquals(expected, contents(tree));
+        }
+    }
+
+    @Test
+    void reopenCutsOffATornTail() throws IOException {
+        try (DurableIntervalTree tree = open()) {
+            for (int i = 0; i < 100; i++) tree.insert(i, i + 1);
+        }
+        long size = Files.size(directory.resolve("wal-0"));
+        assertEquals(100L * DurableIntervalTree.RECORD, size);
+        // Two zeroed records and part of a third, as a crash during a group
+        // write leaves them
+        append("wal-0", new byte[2 * DurableIntervalTree.RECORD + 5], size);
+
+        try (DurableIntervalTree tree = open()) {
+            assertEquals(100, tree.size());
+            assertEquals(size, Files.size(directory.resolve("wal-0")));
+            tree.insert(1000, 1001);
+        }
+        try (DurableIntervalTree tree = open()) {
+            assertEquals(101, tree.size());
+            assertFalse(tree.findContaining(1000).isEmpty());
+        }
+    }
+
+    @Test
+    void reopenFailsOnACorruptRecordBeforeTheTail() throws IOException {
+        try (DurableIntervalTree tree = open()) {
+            for (int i = 0; i < 100; i++) tree.insert(i, i + 1);
+        }
+        long size = Files.size(directory.resolve("wal-0"));
+        // Flip a byte of the start of record 50
+        append("wal-0", new byte[] { 0x7f }, 50L * DurableIntervalTree.RECORD + 1);
+
+        assertThrows(IOException.class, this::open);
+        assertEquals(size, Files.size(directory.resolve("wal-0")));
+    }
+
+    @Test
+    void checkpointThenReopen() throws IOException {
+        List<String> expected;
+        try (DurableIntervalTree tree = open()) {
+            for (int i = 0; i < 500; i++) tree.insert(i * 4, i * 4 + 10);
+            tree.checkpoint();
+            assertEquals(0L, Files.size(directory.resolve("wal-1")));
+            assertFalse(Files.exists(directory.resolve("wal-0")));
+            for (int i = 0; i < 500; i += 2) tree.delete(i * 4, i * 4 + 10);
+            tree.insert(-50, -40);
+            expected = contents(tree);
+        }
+        try (DurableIntervalTree tree = open()) {
+            assertEquals(expected, contents(tree));
+            assertEquals(251, tree.size());
+            tree.checkpoint();
+        }
+        try (DurableIntervalTree tree = open()) {
+            assertEquals(expected, contents(tree));
+            assertTrue(Files.exists(directory.resolve("snapshot-2")));
+            assertFalse(Files.exists(directory.resolve("snapshot-1")));
+        }
+    }
+
+    @Test
+    void groupCommitKeepsEveryAcknowledgedUpdate() throws Exception {
+        int threads = 4, each = 500;
+        try (DurableIntervalTree tree = DurableIntervalTree.open(directory, false, 200_000, 1 << 10)) {
+            List<Thread> writers = new ArrayList<>();
+            List<Throwable> errors = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * each;
+                Thread writer = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < each; i++) {
+                            tree.insert(base + i, base + i);
+                            if (i == each / 2 && base == 0) tree.checkpoint();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        synchronized (errors) {
+                            errors.add(e);
+                        }
+                    }
+                });
+                writers.add(writer);
+                writer.start();
+            }
+            for (Thread writer : writers) writer.join();
+            assertTrue(errors.isEmpty(), errors.toString());
+        }
+        try (DurableIntervalTree tree = open()) {
+            assertEquals(threads * each, tree.size());
+        }
+    }
+}
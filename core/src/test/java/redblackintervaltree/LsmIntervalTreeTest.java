@@ -0,0 +1,96 @@
+package redblackintervaltree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class LsmIntervalTreeTest {
+
+    // Hits of the query as sorted "start..end" keys, failing on a hit
+    // reported twice
+    private static List<String> hits(LsmIntervalTree tree, int start, int end) {
+        TreeSet<Long> seen = new TreeSet<>();
+        tree.findOverlapping(start, end, (s, e) -> {
+            assertTrue(seen.add(key(s, e)), "reported twice: " + s + ".." + e);
+            return true;
+        });
+        List<String> result = new ArrayList<>();
+        for (long k : seen) result.add((int) (k >> 32) + ".." + (int) k);
+        return result;
+    }
+
+    private static List<String> expected(TreeSet<Long> model, int start, int end) {
+        List<String> result = new ArrayList<>();
+        for (long k : model) {
+            int s = (int) (k >> 32), e = (int) k;
+            if (s <= end && start <= e) result.add(s + ".." + e);
+        }
+        return result;
+    }
+
+    private static long key(int start, int end) {
+        return (long) start << 32 | end & 0xffffffffL;
+    }
+
+    @Test
+    void tombstoneHidesOlderRunsUntilReinserted() throws InterruptedException {
+        try (LsmIntervalTree tree = new LsmIntervalTree(4)) {
+            tree.insert(10, 20);
+            tree.flush();
+            tree.delete(10, 20);
+            assertTrue(tree.findContaining(15).isEmpty());
+            tree.flush();
+            tree.awaitCompaction();
+            assertTrue(tree.findContaining(15).isEmpty());
+            tree.insert(10, 20);
+            assertEquals(1, tree.findContaining(15).size());
+            tree.flush();
+            tree.awaitCompaction();
+            assertEquals(1, tree.findContaining(15).size());
+        }
+    }
+
+    @Test
+    void matchesASetAcrossFlushesAndCompactions() throws InterruptedException {
+        Random random = new Random(42);
+        TreeSet<Long> model = new TreeSet<>();
+        try (LsmIntervalTree tree = new LsmIntervalTree(16)) {
+            for (int i = 0; i < 20_000; i++) {
+                int start = random.nextInt(2_000), end = start + random.nextInt(50);
+                if (random.nextInt(3) == 0) {
+                    tree.delete(start, end);
+                    model.remove(key(start, end));
+                } else {
+                    tree.insert(start, end);
+                    model.add(key(start, end));
+                }
+                if (i % 1_000 == 0) tree.awaitCompaction();
+                if (i % 97 == 0) {
+                    int q = random.nextInt(2_000);
+                    assertEquals(expected(model, q, q + 100), hits(tree, q, q + 100), "after update " + i);
+                }
+            }
+            tree.awaitCompaction();
+            assertEquals(expected(model, Integer.MIN_VALUE, Integer.MAX_VALUE),
+                    hits(tree, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            assertTrue(tree.runCount() < 20, "runs left unmerged: " + tree.runCount());
+        }
+    }
+
+    @Test
+    void updatesKeepWorkingAfterClose() throws InterruptedException {
+        LsmIntervalTree tree = new LsmIntervalTree(4);
+        for (int i = 0; i < 10; i++) tree.insert(i, i + 1);
+        tree.close();
+        for (int i = 10; i < 30; i++) tree.insert(i, i + 1);
+        tree.delete(0, 1);
+        tree.awaitCompaction();
+        assertEquals(29, tree.findOverlapping(0, 100).size());
+    }
+}